@@ -14,27 +14,42 @@ public class Depth
     //Board class (inner class)
     private class Board
     {
-        private char[][] array;                    //board array
+        private long computer;                     //locations of computer symbols
+        private long player;                       //locations of player symbols
 
-        //Constructor of Board class
-        private Board(int size)
+        //Constructor of Board class, all slots empty
+        private Board()
         {
-            array = new char[size][size];          //create array
-                                             
-            for (int i = 0; i < size; i++)         //fill array with empty slots   
-                for (int j = 0; j < size; j++)
-                    array[i][j] = EMPTY;
         }
     }
 
     private Board board;                           //game board
     private int size;                              //size of board
+    private long[] lines;                          //masks of rows, columns, diagonals
+    private long all;                              //mask of all locations
     
     //Constructor of Depth class
     public Depth(int size)
     {
-        this.board = new Board(size);              //create game board 
+        if (size < 1 || size > 8)                  //locations must fit in a long
+            throw new IllegalArgumentException("board size must be 1 to 8");
+
+        this.board = new Board();                  //create game board 
         this.size = size;                          //set board size
+
+        this.lines = new long[2 * size + 2];       //location bits of each line,
+        for (int i = 0; i < size; i++)             //location (i, j) is bit i*size+j
+            for (int j = 0; j < size; j++)
+            {
+                long bit = 1L << (i * size + j);
+                lines[i] |= bit;                   //row i
+                lines[size + j] |= bit;            //column j
+                if (i == j)
+                    lines[2 * size] |= bit;        //left diagonal
+                if (i + j == size - 1)
+                    lines[2 * size + 1] |= bit;    //right diagonal
+            }
+        this.all = size == 8 ? -1L : (1L << (size * size)) - 1;
     }
 
     //Method plays game
@@ -81,7 +96,7 @@ public class Depth
         int i = scanner.nextInt();
         int j = scanner.nextInt();
 
-        board.array[i][j] = PLAYER;                //place player symbol
+        place(board, i * size + j, PLAYER);        //place player symbol
 
         displayBoard(board);                       //diplay board
 
@@ -162,14 +177,12 @@ public class Depth
     {
         LinkedList<Board> children = new LinkedList<Board>();
                                                    //empty list of children
-        for (int i = 0; i < size; i++)
-            for (int j = 0; j < size; j++)         //go thru board
-                if (board.array[i][j] == EMPTY)
-                {                                  //if slot is empty
-                    Board child = copy(board);     //put the symbol and
-                    child.array[i][j] = symbol;    //create child board
-                    children.addLast(child);
-                }
+        for (long free = all & ~(board.computer | board.player); free != 0; free &= free - 1)
+        {                                          //go thru empty slots in order
+            Board child = copy(board);             //put the symbol and
+            place(child, Long.numberOfTrailingZeros(free), symbol);
+            children.addLast(child);               //create child board
+        }
 
         return children;                           //return list of children
     }
@@ -193,86 +206,53 @@ public class Depth
         return full(board) && !computerWin(board) && !playerWin(board);
     }                   
 
-    //Method checks whether row, column, or diagonal is occupied
+    //Method checks whether any row, column, or diagonal is occupied
     //by a symbol
     private boolean check(Board board, char symbol)
     {
-        for (int i = 0; i < size; i++)             //check each row
-            if (checkRow(board, i, symbol))
-               return true;
+        long stones = symbol == COMPUTER ? board.computer : board.player;
 
-        for (int i = 0; i < size; i++)             //check each column
-            if (checkColumn(board, i, symbol))
+        for (long line : lines)                    //line is occupied if all its
+            if ((stones & line) == line)           //locations hold the symbol
                 return true;
 
-        if (checkLeftDiagonal(board, symbol))      //check left diagonal
-            return true;
-
-        if (checkRightDiagonal(board, symbol))     //check right diagonal
-            return true;
-
-        return false;                          
+        return false;
     }
 
-    //Method checks whether a row is occupied by a symbol
-    private boolean checkRow(Board board, int i, char symbol)
-    {
-        for (int j = 0; j < size; j++)
-            if (board.array[i][j] != symbol)
-                return false;
-
-        return true;
-    }
-
-    //Method checks whether a column is occupied by a symbol
-    private boolean checkColumn(Board board, int i, char symbol)
+    //Method checks whether a board is full
+    private boolean full(Board board)
     {
-        for (int j = 0; j < size; j++)
-            if (board.array[j][i] != symbol)
-                return false;
-
-        return true;
+        return (board.computer | board.player) == all;
     }
 
-    //Method checks whether left diagonal is occupied a symbol
-    private boolean checkLeftDiagonal(Board board, char symbol)
+    //Method places a symbol at a location of a board, in place of any
+    //symbol there
+    private void place(Board board, int k, char symbol)
     {
-        for (int i = 0; i < size; i++)
-            if (board.array[i][i] != symbol)
-               return false;
+        long bit = 1L << k;
 
-        return true;
-    }
-
-    //Method checks whether right diagonal is occupied by a symbol
-    private boolean checkRightDiagonal(Board board, char symbol)
-    {
-        for (int i = 0; i < size; i++)
-            if (board.array[i][size-1-i] != symbol)
-               return false;
+        board.computer &= ~bit;
+        board.player &= ~bit;
 
-        return true;
+        if (symbol == COMPUTER)
+            board.computer |= bit;
+        else
+            board.player |= bit;
     }
 
-    //Method checks whether a board is full
-    private boolean full(Board board)
+    //Method returns symbol at a location of a board
+    private char symbol(Board board, int k)
     {
-        for (int i = 0; i < size; i++)
-            for (int j = 0; j < size; j++)
-                if (board.array[i][j] == EMPTY)
-                   return false;
-
-        return true;
+        return (board.computer >>> k & 1) != 0 ? COMPUTER : (board.player >>> k & 1) != 0 ? PLAYER : EMPTY;
     }
 
     //Method makes copy of a board
     private Board copy(Board board)
     {
-        Board result = new Board(size);      
+        Board result = new Board();      
 
-        for (int i = 0; i < size; i++)       
-            for (int j = 0; j < size; j++)
-                result.array[i][j] = board.array[i][j];
+        result.computer = board.computer;
+        result.player = board.player;
 
         return result;                       
     }
@@ -283,7 +263,7 @@ public class Depth
         for (int i = 0; i < size; i++)
         {
             for (int j = 0; j < size; j++)
-                System.out.print(board.array[i][j]);
+                System.out.print(symbol(board, i * size + j));
             System.out.println();
         }
     }
@@ -1,203 +1,462 @@
-import java.util.LinkedList;
-
-//This program solves sliding puzzle. It uses breadth first/depth first search.
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import search.ConcurrentLongMap;
+import search.NodeArena;
+import search.PackedBoard;
+import search.SearchBudget;
+import search.SearchStats;
+import search.Solvability;
+
+//This program solves sliding puzzle. It uses breadth first/depth first search,
+//or breadth first search from both ends, or breadth first search that expands
+//each level on several threads. Boards are packed into longs and search nodes
+//are kept in a node arena, with node depth as node value
 public class Sliding
 {
-    //Board class (inner class)
-    private class Board
+    //Task expands a range of a level of boards (inner class). Large ranges
+    //are split in two and run in parallel. Each task fills its own buffer of
+    //children, and buffers are joined into the next level. Boards fit in one
+    //long, and a child is kept only if it is put in visited map first. Tasks
+    //stop expanding once any task finds that budget is exceeded
+    private class Expand extends RecursiveTask<long[]>
     {
-        private char[][] array;                 //board array
-        private Board parent;                   //parent board
+        private static final long serialVersionUID = 1L;
+
+        private long[] level;                          //boards of a level
+        private int from, to;                          //range of level to expand
+
+        //Constructor of task class
+        private Expand(long[] level, int from, int to)
+        {
+            this.level = level;
+            this.from = from;
+            this.to = to;
+        }
 
-        //Constructor of board class
-        private Board(char[][] array, int size)
+        //Method expands range and returns children that were not visited
+        protected long[] compute()
         {
-            this.array = new char[size][size];  //create board array
+            if (to - from > SPLIT)                     //split large range
+            {
+                int middle = (from + to) >>> 1;
+                Expand left = new Expand(level, from, middle);
+                left.fork();                           //left half on another thread
+                long[] right = new Expand(level, middle, to).compute();
+                long[] children = left.join();
+
+                long[] joined = Arrays.copyOf(children, children.length + right.length);
+                System.arraycopy(right, 0, joined, children.length, right.length);
+                return joined;
+            }
+
+            long[] children = new long[4 * (to - from)];  //buffer of this task
+            int count = 0, made = 0;
+            long[] board = new long[1];
+
+            for (int k = from; k < to && stoppedBy == null; k++)
+            {
+                SearchBudget.Limit hit = budget.check(0); //nodes are checked per level
+                if (hit != null)
+                    stoppedBy = hit;
+
+                board[0] = level[k];
+                int slot = packer.find(board, 0, blank);  //location of empty slot
+
+                for (int move = 0; move < 4; move++)   //N, S, E, W children
+                {
+                    int neighbor = packer.neighbor(slot, move);
+                    if (neighbor >= 0)
+                    {
+                        packer.swap(board, 0, slot, neighbor);
+                        made++;
+                        if (visited.putIfAbsent(board[0], level[k]))
+                            children[count++] = board[0];    //first visit
+                        board[0] = level[k];
+                    }
+                }
+            }
 
-            for (int i = 0; i < size; i++)      //copy given array
-                for (int j = 0; j < size; j++)
-                    this.array[i][j] = array[i][j];
+            synchronized (stats)                       //count for whole search
+            {
+                stats.add(0, made, made - count);
+            }
 
-            this.parent = null;                 //no parent
+            return Arrays.copyOf(children, count);
         }
     }
 
-    private Board initial;                      //initial board
-    private Board goal;                         //final board
+    private PackedBoard packer;                 //packs boards into longs
+    private long[] initial;                     //initial board
+    private long[] goal;                        //final board
     private int size;                           //board size
-
-    //Constructor of Sliding class
+    private int blank;                          //code of empty slot
+    private String unsolvable;                  //reason goal can not be reached
+    private long[] child;                       //board of child being created
+    private int searchMethod;                   //reference for switch
+    private SearchStats stats;                  //statistics of current search
+    private SearchBudget budget;                //limits of search
+    private volatile SearchBudget.Limit stoppedBy;  //limit reached by a task
+    private ConcurrentLongMap visited;          //board to parent board, in
+                                                //parallel search
+    private static final int SPLIT = 512;       //largest range expanded by one task
+
+    //Constructor of Sliding class, uses breadth first search
     public Sliding(char[][] initial, char[][] goal, int size)
+    {
+        this(initial, goal, size, 1);
+    }
+
+    /*
+     * Constructor of Sliding class with a search method.
+     * Search method options:
+    Option 1: breadth first search
+    Option 2: depth first search
+    Option 3: breadth first search from initial and final boards until they meet
+    Option 4: breadth first search with each level expanded on several threads,
+              falls back to option 1 if a board does not fit in one long
+     * */
+    public Sliding(char[][] initial, char[][] goal, int size, int searchMethod)
     {
         this.size = size;                           //set board size
-        this.initial = new Board(initial, size);    //create initial board
-        this.goal = new Board(goal, size);          //create final board
+        this.searchMethod = searchMethod;           //hold selection
+        this.unsolvable = Solvability.numbered(initial, goal, size, ' ');  //check before search
+        this.packer = new PackedBoard(goal, size);  //symbols of final board
+        this.initial = unsolvable == null ? packer.pack(initial) : null;   //pack initial board
+                                                                     //if values match
+        this.goal = packer.pack(goal);              //pack final board
+        this.blank = packer.code(' ');              //code of empty slot
+        this.child = new long[packer.words()];
+        this.budget = new SearchBudget();           //no limits
+    }
+
+    //Method sets limits of search
+    public void setBudget(SearchBudget budget)
+    {
+        this.budget = budget;
     }
 
-    //Method solves sliding puzzle
-    public void solve()
+    //Method solves sliding puzzle and returns statistics of search
+    public SearchStats solve()
     {
-         LinkedList<Board> openList = new LinkedList<Board>();  //open list
-         LinkedList<Board> closedList = new LinkedList<Board>();//closed list
+         stats = new SearchStats();
+         stats.start();
+         budget.start();
+
+         if (unsolvable != null)       //goal can not be reached, so
+         {                             //there is nothing to search
+             System.out.println("no solution");
+             stats.noSolution();
+         }
+         else switch(searchMethod){
+             case 2:
+                 solveDepthFirst();
+                 break;
+             case 3:
+                 solveBidirectional();
+                 break;
+             case 4:
+                 if (packer.words() == 1)
+                     solveParallel();
+                 else
+                     solveBreadthFirst();
+                 break;
+             default:
+                 solveBreadthFirst();
+                 break;
+         }
+
+         stats.stop();
+         return stats;
+    }
 
-         openList.addFirst(initial);   //add initial board to open list     
+    //Method solves sliding puzzle using breadth first search
+    private void solveBreadthFirst()
+    {
+         NodeArena nodes = new NodeArena(packer.words());  //boards in open and
+                                                           //closed lists
+         nodes.add(initial, 0, -1, 0); //add initial board to open list
+         int next = 0;                 //open list is nodes from next on
 
-         while (!openList.isEmpty())   //while open list has more boards
+         while (next < nodes.size())   //while open list has more boards
          {
-             Board board = openList.removeFirst();  //remove first board from open list
-                                                    
-             closedList.addLast(board);             //add board to closed list
+             stats.open(nodes.size() - next);
+             SearchBudget.Limit hit = budget.check(stats.getExpanded());
+             if (hit != null)                       //stop at limit of budget
+             {
+                 stop(hit, nodes.states(), nodes.offset(next));
+                 return;
+             }
 
-             if (goal(board))                       //if board is goal
+             int board = next++;                    //remove first board from open list
+             stats.closed(next);
+
+             if (goal(nodes, board))                //if board is goal
              {
-                 displayPath(board);                //display path to goal
+                 displayPath(nodes, board);         //display path to goal
                  return;                            //stop search
              }
              else                                   //if board is not goal
+                 generate(nodes, board);            //add children that are not in
+         }                                          //open and closed lists
+                 //breadth first search - nodes are added at end of arena
+
+         System.out.println("no solution");          //no solution if there are
+         stats.noSolution();                         //no boards in open list
+    }
+
+    //Method solves sliding puzzle using depth first search
+    private void solveDepthFirst()
+    {
+         NodeArena nodes = new NodeArena(packer.words());  //boards in open and
+                                                           //closed lists
+         int[] openList = new int[1024];                   //open list, a stack
+         int top = 0;
+
+         openList[top++] = nodes.add(initial, 0, -1, 0);   //add initial board
+
+         while (top > 0)               //while open list has more boards
+         {
+             stats.open(top);
+             SearchBudget.Limit hit = budget.check(stats.getExpanded());
+             if (hit != null)                       //stop at limit of budget
              {
-                 LinkedList<Board> children = generate(board);//create children
+                 stop(hit, nodes.states(), nodes.offset(openList[top - 1]));
+                 return;
+             }
 
-                 for (int i = 0; i < children.size(); i++)
-                 {
-                     Board child = children.get(i);  //for each child
-                                                     
-                     if (!exists(child, openList) && !exists(child, closedList))
-                         openList.addLast(child);    //if child is not in open and closed
-                 }                                   //lists then add it to open list
-             }                                       
-         }       //breadth first search - adding at end - addLast()
-                 //depth first search - adding at begining - addFirst()
+             int board = openList[--top];           //remove top board from open list
+             stats.closed(nodes.size() - top);
+
+             if (goal(nodes, board))                //if board is goal
+             {
+                 displayPath(nodes, board);         //display path to goal
+                 return;                            //stop search
+             }
+
+             int first = nodes.size();
+             generate(nodes, board);                //create children
+
+             for (int node = first; node < nodes.size(); node++)
+             {                                      //push new children on
+                 if (top == openList.length)        //open list
+                     openList = Arrays.copyOf(openList, top * 2);
+                 openList[top++] = node;
+             }
+         }       //depth first search - last child added is searched first
 
          System.out.println("no solution");          //no solution if there are
-    }                                                //no boards in open list
+         stats.noSolution();                         //no boards in open list
+    }
 
-    //Method creates children of a board
-    private LinkedList<Board> generate(Board board)
+    //Method solves sliding puzzle using breadth first search from initial
+    //and final boards at the same time. The side with the smaller frontier
+    //grows by one whole level, and its new boards are looked up among the
+    //boards of the other side. Among all meetings found in that level the
+    //one with the shortest total path is displayed
+    private void solveBidirectional()
     {
-        int i = 0, j = 0;
-        boolean found = false;
-
-        for (i = 0; i < size; i++)              //find location of empty slot
-        {                                      
-            for (j = 0; j < size; j++)
-                if (board.array[i][j] == ' ')
-                {   
-                    found = true;
-                    break;
-                }
-            
-            if (found)
-               break;
-        }
+         NodeArena forward = new NodeArena(packer.words());   //boards from initial
+         NodeArena backward = new NodeArena(packer.words());  //boards from final
 
-        boolean north, south, east, west;       //decide whether empty slot
-        north = i == 0 ? false : true;          //has N, S, E, W neighbors
-        south = i == size-1 ? false : true;
-        east = j == size-1 ? false : true; 
-        west = j == 0 ? false : true;
+         forward.add(initial, 0, -1, 0);
+         backward.add(goal, 0, -1, 0);
+
+         if (goal(forward, 0))                      //initial board is final
+         {
+             displayPath(forward, 0);
+             return;
+         }
+
+         int forwardNext = 0, backwardNext = 0;     //frontiers are nodes from here on
+
+         while (forwardNext < forward.size() && backwardNext < backward.size())
+         {
+             boolean fromInitial = forward.size() - forwardNext <= backward.size() - backwardNext;
+             NodeArena side = fromInitial ? forward : backward;
+             NodeArena other = fromInitial ? backward : forward;
+             int start = fromInitial ? forwardNext : backwardNext;
+             int end = side.size();
 
-        LinkedList<Board> children = new LinkedList<Board>();//list of children
+             stats.open(forward.size() - forwardNext + backward.size() - backwardNext);
+             stats.closed(forwardNext + backwardNext);
 
-        if (north) children.addLast(createChild(board, i, j, 'N')); //add N, S, E, W
-        if (south) children.addLast(createChild(board, i, j, 'S')); //children if 
-        if (east) children.addLast(createChild(board, i, j, 'E'));  //they exist
-        if (west) children.addLast(createChild(board, i, j, 'W'));  
-                                                                    
-        return children;                        //return children      
+             int sideMeet = -1, otherMeet = -1;     //best meeting so far
+             int shortest = Integer.MAX_VALUE;
+
+             for (int board = start; board < end; board++)
+             {
+                 SearchBudget.Limit hit = budget.check(stats.getExpanded());
+                 if (hit != null)                   //stop at limit of budget
+                 {
+                     stop(hit, side.states(), side.offset(board));
+                     return;
+                 }
+
+                 int first = side.size();
+                 generate(side, board);             //grow frontier by one level
+
+                 for (int node = first; node < side.size(); node++)
+                 {                                  //look up each new board
+                     int match = other.find(side.states(), side.offset(node));
+                     if (match >= 0 && side.value(node) + other.value(match) < shortest)
+                     {
+                         shortest = side.value(node) + other.value(match);
+                         sideMeet = node;
+                         otherMeet = match;
+                     }
+                 }
+             }
+
+             if (fromInitial)
+                 forwardNext = end;
+             else
+                 backwardNext = end;
+
+             if (sideMeet >= 0)                     //frontiers met
+             {
+                 if (fromInitial)
+                     displayPath(forward, sideMeet, backward, otherMeet);
+                 else
+                     displayPath(forward, otherMeet, backward, sideMeet);
+                 return;
+             }
+         }
+
+         System.out.println("no solution");          //no solution if either
+         stats.noSolution();                         //frontier runs out
     }
 
-    //Method creates a child of a board by swapping empty slot in a 
-    //given direction
-    private Board createChild(Board board, int i, int j, char direction)
+    //Method solves sliding puzzle using breadth first search, one level at a
+    //time. Each level is split among threads of the common fork join pool,
+    //and the children they find make up the next level
+    private void solveParallel()
     {
-        Board child = copy(board);                   //create copy of board
+         long start = initial[0], end = goal[0];
+         visited = new ConcurrentLongMap();         //initial board is its own parent
+         visited.putIfAbsent(start, start);
+         stoppedBy = null;
 
-        if (direction == 'N')                        //swap empty slot to north
-        {
-            child.array[i][j] = child.array[i-1][j];
-            child.array[i-1][j] = ' ';
-        }
-        else if (direction == 'S')                   //swap empty slot to south
-        {
-            child.array[i][j] = child.array[i+1][j];
-            child.array[i+1][j] = ' ';
-        }
-        else if (direction == 'E')                   //swap empty slot to east
-        {
-            child.array[i][j] = child.array[i][j+1];
-            child.array[i][j+1] = ' ';
-        }
-        else                                         //swap empty slot to west
-        {
-            child.array[i][j] = child.array[i][j-1];
-            child.array[i][j-1] = ' ';
-        }
+         long[] level = {start};                    //first level
+         ForkJoinPool pool = ForkJoinPool.commonPool();
 
-        child.parent = board;                        //set parent of child
+         while (level.length > 0 && !visited.containsKey(end) && stoppedBy == null)
+         {
+             SearchBudget.Limit hit = budget.check(stats.getExpanded());
+             if (hit != null)                       //stop at limit of budget
+             {
+                 stoppedBy = hit;
+                 break;
+             }
 
-        return child;                                //return child
+             stats.open(level.length);
+             stats.add(level.length, 0, 0);
+             stats.closed(visited.size() - level.length);
+             long[] next = pool.invoke(new Expand(level, 0, level.length));
+             if (stoppedBy == null)                 //keep stopped level to
+                 level = next;                      //display its first board
+         }                                          //next level from this level
+
+         if (stoppedBy != null)                     //stopped inside a level
+         {
+             stop(stoppedBy, level, 0);
+             return;
+         }
+
+         if (!visited.containsKey(end))
+         {
+             System.out.println("no solution");     //no solution if a level
+             stats.noSolution();                    //is empty
+             return;
+         }
+
+         int length = 1;                            //count boards on path
+         for (long board = end; board != start; board = visited.get(board))
+             length++;
+
+         long[] path = new long[length];
+         long board = end;                          //go back towards initial board
+         for (int i = length - 1; i >= 0; i--)
+         {
+             path[i] = board;
+             board = visited.get(board);
+         }
+
+         stats.solved();
+         for (int i = 0; i < path.length; i++)      //print boards in path
+             System.out.print(packer.text(path, i));
+
+         visited = null;
     }
 
-    //Method creates copy of a board
-    private Board copy(Board board)
+    //Method stops search when a limit of budget is reached. Board stored at
+    //an offset of an array is the next board on frontier, which is displayed
+    private void stop(SearchBudget.Limit limit, long[] states, int offset)
     {
-        return new Board(board.array, size);
+        char[][] array = new char[size][size];
+        packer.unpack(states, offset, array);
+        stats.stopped(limit, array);
+
+        System.out.println("budget exceeded: " + limit);
+        System.out.print(packer.text(states, offset));
     }
 
-    //Method decides whether a board is goal
-    private boolean goal(Board board)
+    //Method creates children of a board
+    private void generate(NodeArena nodes, int board)
     {
-        return identical(board, goal);            //compare board with goal
-    }                                             
+        stats.expanded();
 
-    //Method decides whether a board exists in a list
-    private boolean exists(Board board, LinkedList<Board> list)
-    {
-        for (int i = 0; i < list.size(); i++)    //compare board with each
-            if (identical(board, list.get(i)))   //element of list
-               return true;
+        int slot = packer.find(nodes.states(), nodes.offset(board), blank);
 
-        return false;
+        for (int move = 0; move < 4; move++)    //add N, S, E, W children
+        {                                       //if they exist
+            int neighbor = packer.neighbor(slot, move);
+            if (neighbor >= 0)
+                createChild(nodes, board, slot, neighbor);
+        }
     }
 
-    //Method decides whether two boards are identical
-    private boolean identical(Board p, Board q)
+    //Method creates a child of a board by swapping empty slot with a
+    //neighbor slot. Child is added unless it is in open or closed list
+    private void createChild(NodeArena nodes, int board, int slot, int neighbor)
     {
-        for (int i = 0; i < size; i++)
-            for (int j = 0; j < size; j++)
-                if (p.array[i][j] != q.array[i][j])
-                    return false;      //if there is a mismatch then false
+        System.arraycopy(nodes.states(), nodes.offset(board), child, 0, child.length);
+
+        packer.swap(child, 0, slot, neighbor);       //swap empty slot
+        stats.generated();
 
-        return true;                   //otherwise true
+        if (nodes.find(child, 0) < 0)                //if child is not in open and
+            nodes.add(child, 0, board, nodes.value(board) + 1);  //closed lists then add
+        else                                         //it one level below board
+            stats.duplicate();
     }
 
-    //Method displays path from initial to current board
-    private void displayPath(Board board)
+    //Method decides whether a board is goal
+    private boolean goal(NodeArena nodes, int board)
     {
-        LinkedList<Board> list = new LinkedList<Board>();
-
-        Board current = board;         //start at current board
+        return packer.same(nodes.states(), nodes.offset(board), goal);
+    }
 
-        while (current != null)        //go back towards initial board
-        {
-            list.addFirst(current);    //add boards to list
+    //Method displays path from initial to current board
+    private void displayPath(NodeArena nodes, int board)
+    {
+        stats.solved();
 
-            current = current.parent;  //keep going back
-        }
-                                       //print boards in list
-        for (int i = 0; i <  list.size(); i++)  
-            displayBoard(list.get(i));
+        for (int node : nodes.path(board))   //print boards in path
+            System.out.print(packer.text(nodes.states(), nodes.offset(node)));
     }
 
-    //Method displays board
-    private void displayBoard(Board board)
+    //Method displays path from initial board to a board reached from
+    //initial board, and on from the same board reached from final board
+    //back to final board
+    private void displayPath(NodeArena forward, int board, NodeArena backward, int meet)
     {
-        for (int i = 0; i < size; i++) //print each element of board
-        {
-            for (int j = 0; j < size; j++)
-                System.out.print(board.array[i][j] + " ");
-            System.out.println();
-        }   
-        System.out.println();     
+        displayPath(forward, board);  //initial board to meeting board
+
+        //meeting board is already printed, so follow its parents towards
+        //final board
+        for (int current = backward.parent(meet); current >= 0; current = backward.parent(current))
+            System.out.print(packer.text(backward.states(), backward.offset(current)));
     }
 }
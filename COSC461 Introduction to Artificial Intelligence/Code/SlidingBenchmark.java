@@ -0,0 +1,159 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import q1.program.PatternDatabase;
+import search.ResultSink;
+
+//Benchmark program for sliding board solvers. Each case solves fixed boards
+//over and over, first to warm up and then while measuring. Throughput is
+//solves per second, and allocation is bytes allocated by the main thread per
+//solve, so threads of parallel search are not counted. Paths are thrown away
+//while measuring.
+//Usage: SlidingBenchmark [case name filter] [warmup seconds] [measure seconds]
+public class SlidingBenchmark
+{
+    //boards of SlidingTester, blank as ' ' and as '0'
+    private static final String[] NEAR = {"571", "2 8", "463", "5 1", "478", "623"};
+
+    //boards of SlidingBestTester and q1/file1.txt, blank as ' ' and as '0'
+    private static final String[] FAR = {"571", "2 8", "463", "148", "526", " 37"};
+
+    //board of q2/file3.txt
+    private static final String[] COLORED = {"G42", "GRG", "65R"};
+
+    //main method for benchmarking
+    public static void main(String[] args) throws IOException
+    {
+        String filter = args.length > 0 ? args[0] : "";
+        double warmup = args.length > 1 ? Double.parseDouble(args[1]) : 1;
+        double measure = args.length > 2 ? Double.parseDouble(args[2]) : 2;
+
+        Map<String, Runnable> cases = cases();
+
+        PrintStream console = System.out;      //solvers print to System.out,
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));  //so drop it
+
+        console.printf("%-32s %14s %16s %10s%n", "case", "solves/s", "bytes/solve", "solves");
+        for (Map.Entry<String, Runnable> entry : cases.entrySet())
+        {
+            if (!entry.getKey().contains(filter))
+                continue;
+
+            run(entry.getValue(), warmup);     //warm up, result not used
+            double[] result = run(entry.getValue(), measure);
+            console.printf("%-32s %14.2f %16.0f %10.0f%n", entry.getKey(), result[0], result[1], result[2]);
+        }
+
+        System.setOut(console);
+    }
+
+    //Method solves a case over and over for at least a number of seconds, and
+    //at least once. Returns solves per second, bytes per solve, and solves
+    private static double[] run(Runnable solve, double seconds)
+    {
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        long bytesStart = threads.getThreadAllocatedBytes(thread);
+        long clockStart = System.nanoTime();
+        long deadline = clockStart + (long) (seconds * 1e9);
+        long solves = 0;
+
+        do
+        {
+            solve.run();
+            solves++;
+        }
+        while (System.nanoTime() < deadline);
+
+        long clockEnd = System.nanoTime();
+        long bytesEnd = threads.getThreadAllocatedBytes(thread);
+
+        return new double[] {solves / ((clockEnd - clockStart) / 1e9),
+                             (double) (bytesEnd - bytesStart) / solves, solves};
+    }
+
+    //Method lists benchmark cases in order
+    private static Map<String, Runnable> cases() throws IOException
+    {
+        Map<String, Runnable> cases = new LinkedHashMap<>();
+
+        char[][] nearStart = board(NEAR, 0, ' '), nearGoal = board(NEAR, 3, ' ');
+        char[][] farStart = board(FAR, 0, ' '), farGoal = board(FAR, 3, ' ');
+
+        String[] methods = {"bfs", "dfs", "bidirectional", "parallel"};
+        for (int method = 1; method <= methods.length; method++)
+        {
+            int m = method;
+            cases.put("Sliding " + methods[m - 1] + " near", () -> new Sliding(nearStart, nearGoal, 3, m).solve());
+            cases.put("Sliding " + methods[m - 1] + " far", () -> new Sliding(farStart, farGoal, 3, m).solve());
+        }
+
+        cases.put("SlidingLimit 6 near", () -> new SlidingLimit(nearStart, nearGoal, 3, 6).solve());
+        cases.put("SlidingLimit deepening near", () -> new SlidingLimit(nearStart, nearGoal, 3).solve());
+        cases.put("SlidingLimit deepening far", () -> new SlidingLimit(farStart, farGoal, 3).solve());
+        cases.put("SlidingBest near", () -> new SlidingBest(nearStart, nearGoal, 3).solve());
+        cases.put("SlidingBest far", () -> new SlidingBest(farStart, farGoal, 3).solve());
+
+        addAstar(cases, "near", board(NEAR, 0, '0'), board(NEAR, 3, '0'), new int[] {1, 2, 3, 4});
+        addAstar(cases, "far", board(FAR, 0, '0'), board(FAR, 3, '0'), new int[] {1, 3, 4});
+                                               //uniform cost on far boards
+                                               //takes minutes per solve
+        char[][] colored = board(COLORED, 0, ' ');
+        char[][] sorted = {{'2', '4', '5'}, {'6', 'R', 'R'}, {'G', 'G', 'G'}};
+        cases.put("q2 SlidingAstar", () ->
+        {
+            q2.program.SlidingAstar s = new q2.program.SlidingAstar(colored, sorted, 3);
+            s.setSink(new ResultSink((char) 0));
+            s.solve();
+        });
+        cases.put("q2 SlidingAstar matching", () ->
+        {
+            q2.program.SlidingAstar s = new q2.program.SlidingAstar(colored, sorted, 3, 2);
+            s.setSink(new ResultSink((char) 0));
+            s.solve();
+        });
+
+        return cases;
+    }
+
+    //Method adds q1 SlidingAstar cases for evaluation functions and every
+    //heuristic function, with a pattern database built for goal board
+    private static void addAstar(Map<String, Runnable> cases, String name, char[][] initial, char[][] goal,
+                                 int[] evaluations) throws IOException
+    {
+        File file = File.createTempFile("bench", ".pdb");
+        file.deleteOnExit();
+        PatternDatabase.build(goal, 3, '0', 4, file.getPath());
+        PatternDatabase patterns = PatternDatabase.load(file.getPath());
+
+        for (int evaluation : evaluations)
+            for (int heuristic = 1; heuristic <= 5; heuristic++)
+            {
+                int e = evaluation, h = heuristic;
+                cases.put("q1 SlidingAstar f" + e + " h" + h + " " + name, () ->
+                {
+                    q1.program.SlidingAstar s = new q1.program.SlidingAstar(initial, goal, 3, e, h, patterns);
+                    s.setSink(new ResultSink('0'));
+                    s.solve();
+                });
+            }
+    }
+
+    //Method makes a board from three rows starting at a row, with ' ' as blank
+    private static char[][] board(String[] rows, int first, char blank)
+    {
+        char[][] board = new char[3][];
+
+        for (int i = 0; i < 3; i++)
+            board[i] = rows[first + i].replace(' ', blank).toCharArray();
+
+        return board;
+    }
+}
@@ -1,58 +1,187 @@
-import java.util.LinkedList;
+import java.util.Arrays;
+
+import search.NodeArena;
+import search.PackedBoard;
+import search.SearchBudget;
+import search.SearchStats;
+import search.Solvability;
 
 //This program solves sliding puzzle using best first search.
-//Misplacement and distance heuristics are used
+//Misplacement and distance heuristics are used. Boards are packed into
+//longs and search nodes are kept in a node arena, with heuristic value
+//as node value
 public class SlidingBest
 {
-    //Board class (inner class)
-    private class Board
+    //Open list (inner class). It is a binary min heap of nodes ordered on
+    //heuristic value
+    private class OpenList
     {
-        private char[][] array;                 //board array
-        private int hvalue;                     //heuristic value
-        private Board parent;                   //parent board
+        private int[] heap;                            //heap of nodes
+        private int count;                             //nodes in heap
+
+        //Constructor of open list class
+        private OpenList()
+        {
+            this.heap = new int[1024];                 //empty heap
+            this.count = 0;
+        }
+
+        //Method decides whether open list is empty
+        private boolean isEmpty()
+        {
+            return count == 0;
+        }
+
+        //Method adds a node to open list
+        private void add(int node)
+        {
+            if (count == heap.length)
+                heap = Arrays.copyOf(heap, heap.length * 2);
+            heap[count++] = node;
+            siftUp(count - 1);
+        }
 
-        //Constructor of board class
-        private Board(char[][] array, int size)
+        //Method removes node with minimum value from open list
+        private int removeBest()
         {
-            this.array = new char[size][size];  //create board array
+            int best = heap[0];                        //node at root
+            heap[0] = heap[--count];                   //move last node to root
+            if (count > 0)
+                siftDown(0);
+            return best;
+        }
 
-            for (int i = 0; i < size; i++)      //copy given array
-                for (int j = 0; j < size; j++)
-                    this.array[i][j] = array[i][j];
+        //Method moves node at a slot up until its parent is not larger
+        private void siftUp(int slot)
+        {
+            while (slot > 0)
+            {
+                int up = (slot - 1) / 2;
+                if (!less(heap[slot], heap[up]))
+                    break;
+                swap(slot, up);
+                slot = up;
+            }
+        }
+
+        //Method moves node at a slot down until its children are not smaller
+        private void siftDown(int slot)
+        {
+            while (true)
+            {
+                int left = 2 * slot + 1, right = left + 1, least = slot;
+                if (left < count && less(heap[left], heap[least]))
+                    least = left;
+                if (right < count && less(heap[right], heap[least]))
+                    least = right;
+                if (least == slot)
+                    break;
+                swap(slot, least);
+                slot = least;
+            }
+        }
 
-            this.hvalue = 0;                    //heuristic value is 0
+        //Method swaps nodes at two slots
+        private void swap(int a, int b)
+        {
+            int node = heap[a];
+            heap[a] = heap[b];
+            heap[b] = node;
+        }
 
-            this.parent = null;                 //no parent
+        //Method decides whether a node comes before another node. Ties go
+        //to the node created first, same as a scan of a list
+        private boolean less(int p, int q)
+        {
+            int hp = nodes.value(p), hq = nodes.value(q);
+            return hp < hq || (hp == hq && p < q);
         }
     }
 
-    private Board initial;                         //initial board
-    private Board goal;                            //goal board
+    private PackedBoard packer;                    //packs boards into longs
+    private long[] initial;                        //initial board
+    private long[] goal;                           //goal board
     private int size;                              //board size
+    private int blank;                             //code of empty slot
+    private String unsolvable;                     //reason goal can not be reached
+    private long[] child;                          //board of child being created
+    private int[] homes;                           //goal slot of each code
+    private NodeArena nodes;                       //boards in open and closed lists
+    private SearchStats stats;                     //statistics of current search
+    private SearchBudget budget;                   //limits of search
 
     //Constructor of SlidingBest class
     public SlidingBest(char[][] initial, char[][] goal, int size)
     {
         this.size = size;                          //set size of board
-        this.initial = new Board(initial, size);   //create initial board
-        this.goal = new Board(goal, size);         //create gosl board
+        this.unsolvable = Solvability.numbered(initial, goal, size, ' ');  //check before search
+        this.packer = new PackedBoard(goal, size); //symbols of goal board
+        this.initial = unsolvable == null ? packer.pack(initial) : null;   //pack initial board
+                                                                     //if values match
+        this.goal = packer.pack(goal);             //pack goal board
+        this.blank = packer.code(' ');             //code of empty slot
+        this.child = new long[packer.words()];
+
+        this.homes = new int[size * size];         //locate each value in goal
+        for (int slot = size * size - 1; slot >= 0; slot--)  //board once, first
+            homes[packer.get(this.goal, 0, slot)] = slot;     //slot in row order wins
+
+        this.budget = new SearchBudget();          //no limits
+    }
+
+    //Method sets limits of search
+    public void setBudget(SearchBudget budget)
+    {
+        this.budget = budget;
+    }
+
+    //Method solves sliding puzzle and returns statistics of search
+    public SearchStats solve()
+    {
+         stats = new SearchStats();
+         stats.start();
+         budget.start();
+
+         if (unsolvable != null)       //goal can not be reached, so
+         {                             //there is nothing to search
+             System.out.println("no solution");
+             stats.noSolution();
+         }
+         else
+             search();
+
+         stats.stop();
+         return stats;
     }
 
-    //Method solves sliding puzzle
-    public void solve()
+    //Method searches boards in order of heuristic value
+    private void search()
     {
-         LinkedList<Board> openList = new LinkedList<Board>();  //open list
-         LinkedList<Board> closedList = new LinkedList<Board>();//closed list
+         nodes = new NodeArena(packer.words());    //boards in open and closed lists
+         OpenList openList = new OpenList();       //open list
 
-         openList.addFirst(initial);   //add initial board to open list     
+         stats.startHeuristic();
+         int value = heuristic_M(initial);
+         stats.stopHeuristic();
+         openList.add(nodes.add(initial, 0, -1, value));   //add initial board to open list
 
          while (!openList.isEmpty())   //while open list has more boards
          {
-             int best = selectBest(openList);       //select best board
+             stats.open(openList.count);
+             SearchBudget.Limit hit = budget.check(stats.getExpanded());
+             if (hit != null)                       //stop at limit of budget and
+             {                                      //display best board on frontier
+                 char[][] array = new char[size][size];
+                 int offset = nodes.offset(openList.heap[0]);
+                 packer.unpack(nodes.states(), offset, array);
+                 stats.stopped(hit, array);
+                 System.out.println("budget exceeded: " + hit);
+                 System.out.print(packer.text(nodes.states(), offset));
+                 return;
+             }
 
-             Board board = openList.remove(best);   //remove board
-                                                    
-             closedList.addLast(board);             //add board to closed list
+             int board = openList.removeBest();     //remove best board
+             stats.closed(nodes.size() - openList.count);
 
              if (goal(board))                       //if board is goal
              {
@@ -60,221 +189,126 @@ public class SlidingBest
                  return;                            //stop search
              }
              else                                   //if board is not goal
-             {
-                 LinkedList<Board> children = generate(board);//create children
-
-                 for (int i = 0; i < children.size(); i++)
-                 {
-                     Board child = children.get(i);  //for each child
-                                                     
-                     if (!exists(child, openList) && !exists(child, closedList))
-                         openList.addLast(child);    //if child is not in open and
-                 }                                   //closed lists then add it to
-             }                                       //open list
-         }
+                 generate(board, openList);         //add children that are not in
+         }                                          //open and closed lists
 
          System.out.println("no solution");          //no solution if there are
-    }                                                //no boards in open list
+         stats.noSolution();                         //no boards in open list
+    }
 
     //Method creates children of a board
-    private LinkedList<Board> generate(Board board)
+    private void generate(int board, OpenList openList)
     {
-        int i = 0, j = 0;
-        boolean found = false;
-
-        for (i = 0; i < size; i++)              //find location of empty slot
-        {                                       //of board
-            for (j = 0; j < size; j++)
-                if (board.array[i][j] == ' ')
-                {   
-                    found = true;
-                    break;
-                }
-            
-            if (found)
-               break;
-        }
-
-        boolean north, south, east, west;       //decide whether empty slot
-        north = i == 0 ? false : true;          //has N, S, E, W neighbors
-        south = i == size-1 ? false : true;
-        east = j == size-1 ? false : true; 
-        west = j == 0 ? false : true;
+        stats.expanded();
 
-        LinkedList<Board> children = new LinkedList<Board>();//list of children
+        int slot = packer.find(nodes.states(), nodes.offset(board), blank);
 
-        if (north) children.addLast(createChild(board, i, j, 'N')); //add N, S, E, W
-        if (south) children.addLast(createChild(board, i, j, 'S')); //children if
-        if (east) children.addLast(createChild(board, i, j, 'E'));  //they exist
-        if (west) children.addLast(createChild(board, i, j, 'W'));  
-                                                                    
-        return children;                        //return children      
+        for (int move = 0; move < 4; move++)    //add N, S, E, W children
+        {                                       //if they exist
+            int neighbor = packer.neighbor(slot, move);
+            if (neighbor >= 0)
+                createChild(board, slot, neighbor, openList);
+        }
     }
 
-    //Method creates a child of a board by swapping empty slot in a 
-    //given direction
-    private Board createChild(Board board, int i, int j, char direction)
+    //Method creates a child of a board by swapping empty slot with a
+    //neighbor slot. Child is added unless it is in open or closed list
+    private void createChild(int board, int slot, int neighbor, OpenList openList)
     {
-        Board child = copy(board);                   //create copy of board
-
-        if (direction == 'N')                        //swap empty slot to north
-        {
-            child.array[i][j] = child.array[i-1][j];
-            child.array[i-1][j] = ' ';
-        }
-        else if (direction == 'S')                   //swap empty slot to south
-        {
-            child.array[i][j] = child.array[i+1][j];
-            child.array[i+1][j] = ' ';
-        }
-        else if (direction == 'E')                   //swap empty slot to east
-        {
-            child.array[i][j] = child.array[i][j+1];
-            child.array[i][j+1] = ' ';
-        }
-        else                                         //swap empty slot to west
-        {
-            child.array[i][j] = child.array[i][j-1];
-            child.array[i][j-1] = ' ';
-        }
-
-        child.hvalue = heuristic_M(child);           //set heuristic value
+        System.arraycopy(nodes.states(), nodes.offset(board), child, 0, child.length);
 
-        child.parent = board;                        //assign parent to child
+        packer.swap(child, 0, slot, neighbor);       //swap empty slot
+        stats.generated();
 
-        return child;                                //return child
+        if (nodes.find(child, 0) < 0)                //if child is not in open and
+        {                                            //closed lists then add it to
+            stats.startHeuristic();                  //open list with heuristic value
+            int value = heuristic_M(board, slot, neighbor);
+            stats.stopHeuristic();
+            openList.add(nodes.add(child, 0, board, value));
+        }
+        else
+            stats.duplicate();
     }
 
     //Method computes heuristic value of board
     //Heuristic value is the number misplaced values
-    private int heuristic_M(Board board)
+    private int heuristic_M(long[] board)
     {
         int value = 0;                               //initial heuristic value
 
-        for (int i = 0; i < size; i++)               //go thru board and
-            for (int j = 0; j < size; j++)           //count misplaced values
-                if (board.array[i][j] != goal.array[i][j])
-                   value += 1;                       
-  
+        for (int slot = 0; slot < size * size; slot++) //go thru board and
+            value += misplaced(board, 0, slot);      //count misplaced values
+
         return value;                                //return heuristic value
     }
 
-    //Method computes heuristic value of board
-    //Heuristic value is the sum of taxi distances of misplaced values
-    private int heuristic_D(Board board)
+    //Method computes heuristic value of child from heuristic value of its
+    //parent board. Only the two swapped slots differ, so only they are
+    //counted again
+    private int heuristic_M(int board, int slot, int neighbor)
     {
-        //initial heuristic value
-        int value = 0;
-
-        //go thru board
-        for (int i = 0; i < size; i++)
-            for (int j = 0; j < size; j++)
-                //if value mismatches in goal board    
-                if (board.array[i][j] != goal.array[i][j]) 
-                {                                
-                    //locate value in goal board
-                    int x = 0, y = 0;         
-                    boolean found = false;
-                    for (x = 0; x < size; x++)
-                    {                       
-                        for (y = 0; y < size; y++)
-                            if (goal.array[x][y] == board.array[i][j])
-                            {                 
-                                found = true; 
-                                break;
-                            } 
-                        if (found)
-                           break;                        
-                    }
-            
-                    //find city distance between two locations
-                    value += (int)Math.abs(x-i) + (int)Math.abs(y-j);
-                }
-                     
-        //return heuristic value               
-        return value;
+        long[] states = nodes.states();
+        int offset = nodes.offset(board);
+
+        return nodes.value(board) - misplaced(states, offset, slot) - misplaced(states, offset, neighbor)
+                                  + misplaced(child, 0, slot) + misplaced(child, 0, neighbor);
     }
 
-    //Method locates the board with minimum heuristic value in a
-    //list of boards
-    private int selectBest(LinkedList<Board> list)
+    //Method computes heuristic value of board
+    //Heuristic value is the sum of taxi distances of misplaced values
+    private int heuristic_D(long[] board)
     {
-        int minValue = list.get(0).hvalue;           //initialize minimum
-        int minIndex = 0;                            //value and location
+        int value = 0;                               //initial heuristic value
 
-        for (int i = 0; i < list.size(); i++)
-        {
-            int value = list.get(i).hvalue;
-            if (value < minValue)                    //updates minimums if
-            {                                        //board with smaller
-                minValue = value;                    //heuristic value is found
-                minIndex  = i;
-            } 
-        }
+        for (int slot = 0; slot < size * size; slot++) //go thru board and add
+            value += distance(board, 0, slot);       //distances of misplaced values
 
-        return minIndex;                             //return minimum location
-    }   
+        return value;                                //return heuristic value
+    }
 
-    //Method creates copy of a board
-    private Board copy(Board board)
+    //Method computes heuristic value of child from heuristic value of its
+    //parent board. Only the two swapped slots differ, so only their
+    //distances are found again
+    private int heuristic_D(int board, int slot, int neighbor)
     {
-        return new Board(board.array, size);
+        long[] states = nodes.states();
+        int offset = nodes.offset(board);
+
+        return nodes.value(board) - distance(states, offset, slot) - distance(states, offset, neighbor)
+                                  + distance(child, 0, slot) + distance(child, 0, neighbor);
     }
 
-    //Method decides whether a board is goal
-    private boolean goal(Board board)
+    //Method returns 1 if value in a slot mismatches goal board, else 0
+    private int misplaced(long[] board, int offset, int slot)
     {
-        return identical(board, goal);            //compare board with goal
-    }                                             
+        return packer.get(board, offset, slot) != packer.get(goal, 0, slot) ? 1 : 0;
+    }
 
-    //Method decides whether a board exists in a list
-    private boolean exists(Board board, LinkedList<Board> list)
+    //Method returns taxi distance from a slot to slot of its value in goal
+    //board if value mismatches goal board, else 0
+    private int distance(long[] board, int offset, int slot)
     {
-        for (int i = 0; i < list.size(); i++)    //compare board with each
-            if (identical(board, list.get(i)))   //element of list
-               return true;
+        int code = packer.get(board, offset, slot);
+        if (code == packer.get(goal, 0, slot))
+            return 0;
 
-        return false;
+        int home = homes[code];                      //slot in goal board
+        return Math.abs(home / size - slot / size) + Math.abs(home % size - slot % size);
     }
 
-    //Method decides whether two boards are identical
-    private boolean identical(Board p, Board q)
+    //Method decides whether a board is goal
+    private boolean goal(int board)
     {
-        for (int i = 0; i < size; i++)
-            for (int j = 0; j < size; j++)
-                if (p.array[i][j] != q.array[i][j])
-                    return false;      //if there is a mismatch then false
-
-        return true;                   //otherwise true
+        return packer.same(nodes.states(), nodes.offset(board), goal);
     }
 
     //Method displays path from initial to current board
-    private void displayPath(Board board)
+    private void displayPath(int board)
     {
-        LinkedList<Board> list = new LinkedList<Board>();
-
-        Board pointer = board;         //start at current board
+        stats.solved();
 
-        while (pointer != null)        //go back towards initial board
-        {
-            list.addFirst(pointer);    //add boards to beginning of list
-
-            pointer = pointer.parent;  //keep going back
-        }
-                                       //print boards in list
-        for (int i = 0; i < list.size(); i++)  
-            displayBoard(list.get(i));
-    }
-
-    //Method displays board
-    private void displayBoard(Board board)
-    {
-        for (int i = 0; i < size; i++) //print each element of board
-        {
-            for (int j = 0; j < size; j++)
-                System.out.print(board.array[i][j] + " ");
-            System.out.println();
-        }   
-        System.out.println();     
+        for (int node : nodes.path(board))   //print boards in path
+            System.out.print(packer.text(nodes.states(), nodes.offset(node)));
     }
 }
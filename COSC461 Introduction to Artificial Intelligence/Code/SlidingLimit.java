@@ -1,214 +1,319 @@
-import java.util.LinkedList;
+import search.NodeArena;
+import search.PackedBoard;
+import search.SearchBudget;
+import search.SearchStats;
+import search.Solvability;
+import search.Symbols;
+import search.TranspositionTable;
 
 //This program solves sliding puzzle. It uses breadth first/depth first search
-//with depth limit
+//with depth limit. Boards are packed into longs and search nodes are kept in
+//a node arena, with node depth as node value. Without a depth limit it uses
+//iterative deepening depth first search, which keeps only the current path
+//and a bounded table of boards seen
 public class SlidingLimit
 {
-    //Board class (inner class)
-    private class Board
-    {
-        private char[][] array;                 //board array
-        private int depth;                      //board depth
-        private Board parent;                   //parent board
-
-        //Constructor of board class
-        private Board(char[][] array, int size)
-        {
-            this.array = new char[size][size];  //create board array
-
-            for (int i = 0; i < size; i++)      //copy given array
-                for (int j = 0; j < size; j++)
-                    this.array[i][j] = array[i][j];
+    private static final int MAX_TABLE_SIZE = 1 << 20;  //most boards kept in table
 
-            this.depth = 1;                     //depth one
-
-            this.parent = null;                 //no parent
-        }
-    }
-
-    private Board initial;                      //initial board
-    private Board goal;                         //final board
+    private PackedBoard packer;                 //packs boards into longs
+    private long[] initial;                     //initial board
+    private long[] goal;                        //final board
     private int size;                           //board size
-    private int limit;                          //depth limit        
+    private int blank;                          //code of empty slot
+    private String unsolvable;                  //reason goal can not be reached
+    private long[] child;                       //board of child being created
+    private int limit;                          //depth limit of breadth first search
+    private boolean deepening;                  //whether limit is raised pass by pass
+    private int tableSize;                      //boards kept in table of a pass
+    private long[] path;                        //boards on depth first path
+    private int[] slots;                        //empty slot of each board on path
+    private int[] moves;                        //next move of each board on path
+    private boolean cutoff;                     //whether a pass hit its limit
+    private SearchStats stats;                  //statistics of current search
+    private SearchBudget budget;                //limits of search
+    private SearchBudget.Limit stoppedBy;       //limit reached by a pass
+    private int stoppedAt;                      //depth of board a pass stopped at
+
+    //Constructor of SlidingLimit class without depth limit. Limit is
+    //raised one level at a time until goal is found
+    public SlidingLimit(char[][] initial, char[][] goal, int size)
+    {
+        this(initial, goal, size, 0);
+        this.deepening = true;                      //no depth limit
+    }
 
     //Constructor of SlidingLimit class
     public SlidingLimit(char[][] initial, char[][] goal, int size, int limit)
     {
         this.size = size;                           //set board size
         this.limit = limit;                         //set depth limit
-        this.initial = new Board(initial, size);    //create initial board
-        this.goal = new Board(goal, size);          //create final board
+        this.unsolvable = Solvability.numbered(initial, goal, size, ' ');  //check before search
+        this.packer = new PackedBoard(goal, size);  //symbols of final board
+        this.initial = unsolvable == null ? packer.pack(initial) : null;   //pack initial board
+                                                                     //if values match
+        this.goal = packer.pack(goal);              //pack final board
+        this.blank = packer.code(' ');              //code of empty slot
+        this.child = new long[packer.words()];
+        this.tableSize = tableSize(goal, size);     //no bigger than needed
+        this.budget = new SearchBudget();           //no limits
     }
 
-    //Method solves sliding puzzle
-    public void solve()
+    //Method sets limits of search
+    public void setBudget(SearchBudget budget)
     {
-         LinkedList<Board> openList = new LinkedList<Board>();  //open list
-         LinkedList<Board> closedList = new LinkedList<Board>();//closed list
+        this.budget = budget;
+    }
 
-         openList.addFirst(initial);   //add initial board to open list     
+    //Method solves sliding puzzle and returns statistics of search
+    public SearchStats solve()
+    {
+         stats = new SearchStats();
+         stats.start();
+         budget.start();
+
+         if (unsolvable != null)       //goal can not be reached, so
+         {                             //there is nothing to search
+             System.out.println("no solution");
+             stats.noSolution();
+         }
+         else if (deepening)           //no depth limit given
+             solveIterativeDeepening();
+         else
+             solveBreadthFirst();
+
+         stats.stop();
+         return stats;
+    }
+
+    //Method solves sliding puzzle using breadth first search with depth limit
+    private void solveBreadthFirst()
+    {
+         NodeArena nodes = new NodeArena(packer.words());  //boards in open and
+                                                           //closed lists
+         nodes.add(initial, 0, -1, 1); //add initial board to open list at depth one
+         int next = 0;                 //open list is nodes from next on
 
-         while (!openList.isEmpty())   //while open list has more boards
+         while (next < nodes.size())   //while open list has more boards
          {
-             Board board = openList.removeFirst();  //remove first board from open list
-                                                    
-             closedList.addLast(board);             //add board to closed list
+             stats.open(nodes.size() - next);
+             SearchBudget.Limit hit = budget.check(stats.getExpanded());
+             if (hit != null)                       //stop at limit of budget
+             {
+                 stop(hit, nodes.states(), nodes.offset(next));
+                 return;
+             }
 
-             if (goal(board))                       //if board is goal
+             int board = next++;                    //remove first board from open list
+             stats.closed(next);
+
+             if (goal(nodes, board))                //if board is goal
              {
-                 displayPath(board);                //display path to goal
+                 displayPath(nodes, board);         //display path to goal
                  return;                            //stop search
              }
              else                                   //if board is not goal
              {
-                 if (board.depth < limit)           //if board depth is less than depth limit
-                 {
-                     LinkedList<Board> children = generate(board);//create children
-
-                     for (int i = 0; i < children.size(); i++)
-                     {
-                        Board child = children.get(i);  //for each child
-                                                     
-                        if (!exists(child, openList) && !exists(child, closedList))
-                            openList.addLast(child);    //if child is not in open and closed
-                     }                                  //lists then add it to open list
-                 }
-             }                                       
-         }       //breadth first search - adding at end - addLast()
-                 //depth first search - adding at begining - addFirst()
+                 if (nodes.value(board) < limit)    //if board depth is less than depth limit
+                     generate(nodes, board);        //add children that are not in
+             }                                      //open and closed lists
+         }
+                 //breadth first search - nodes are added at end of arena
 
          System.out.println("no solution");          //no solution if there are
-    }                                                //no boards in open list
+         stats.noSolution();                         //no boards in open list
+    }
 
-    //Method creates children of a board
-    private LinkedList<Board> generate(Board board)
+    //Method solves sliding puzzle using iterative deepening. Each pass is a
+    //depth first search with one more level than the pass before, so the
+    //first path found is a shortest path. Search stops with no solution when
+    //a pass never reaches its limit
+    private void solveIterativeDeepening()
     {
-        int i = 0, j = 0;
-        boolean found = false;
-
-        for (i = 0; i < size; i++)              //find location of empty slot
-        {                                      
-            for (j = 0; j < size; j++)
-                if (board.array[i][j] == ' ')
-                {   
-                    found = true;
-                    break;
-                }
-            
-            if (found)
-               break;
-        }
+         TranspositionTable table = new TranspositionTable(packer.words(), tableSize);
 
-        boolean north, south, east, west;       //decide whether empty slot
-        north = i == 0 ? false : true;          //has N, S, E, W neighbors
-        south = i == size-1 ? false : true;
-        east = j == size-1 ? false : true; 
-        west = j == 0 ? false : true;
+         for (int passLimit = 1; ; passLimit++)
+         {
+             table.clear();                         //forget previous pass
 
-        LinkedList<Board> children = new LinkedList<Board>();//list of children
+             int length = search(passLimit, table);
 
-        if (north) children.addLast(createChild(board, i, j, 'N')); //add N, S, E, W
-        if (south) children.addLast(createChild(board, i, j, 'S')); //children if 
-        if (east) children.addLast(createChild(board, i, j, 'E'));  //they exist
-        if (west) children.addLast(createChild(board, i, j, 'W'));  
-                                                                    
-        return children;                        //return children      
+             if (length < 0)                        //stop at limit of budget
+             {
+                 stop(stoppedBy, path, stoppedAt * packer.words());
+                 return;
+             }
+
+             if (length > 0)                        //goal is found
+             {
+                 stats.solved();
+                 for (int i = 0; i < length; i++)   //print boards in path
+                     System.out.print(packer.text(path, i * packer.words()));
+                 return;
+             }
+
+             if (!cutoff)                           //every board was searched
+             {
+                 System.out.println("no solution");
+                 stats.noSolution();
+                 return;
+             }
+         }
     }
 
-    //Method creates a child of a board by swapping empty slot in a 
-    //given direction
-    private Board createChild(Board board, int i, int j, char direction)
+    //Method runs depth first search with an explicit stack of boards up to a
+    //depth limit, with initial board at depth one. A board already seen at the
+    //same or a smaller depth in this pass is skipped. Returns number of
+    //boards on path to goal, 0 if goal is not found, or -1 if budget is
+    //exceeded
+    private int search(int passLimit, TranspositionTable table)
     {
-        Board child = copy(board);                   //create copy of board
+         int words = packer.words();
+         path = new long[passLimit * words];        //stack of boards
+         slots = new int[passLimit];
+         moves = new int[passLimit];
+         cutoff = false;
 
-        if (direction == 'N')                        //swap empty slot to north
-        {
-            child.array[i][j] = child.array[i-1][j];
-            child.array[i-1][j] = ' ';
-        }
-        else if (direction == 'S')                   //swap empty slot to south
-        {
-            child.array[i][j] = child.array[i+1][j];
-            child.array[i+1][j] = ' ';
-        }
-        else if (direction == 'E')                   //swap empty slot to east
-        {
-            child.array[i][j] = child.array[i][j+1];
-            child.array[i][j+1] = ' ';
-        }
-        else                                         //swap empty slot to west
-        {
-            child.array[i][j] = child.array[i][j-1];
-            child.array[i][j-1] = ' ';
-        }
+         System.arraycopy(initial, 0, path, 0, words);
+         slots[0] = packer.find(path, 0, blank);
+         table.visit(path, 0, 1);
 
-        child.depth = board.depth + 1;               //set depth of child
+         if (goal(path, 0))                         //initial board is goal
+             return 1;
 
-        child.parent = board;                        //set parent of child
-        
-        return child;                                //return child
-    }
+         int depth = 0;                             //top of stack
 
-    //Method creates copy of a board
-    private Board copy(Board board)
-    {
-        return new Board(board.array, size);
+         while (depth >= 0)
+         {
+             if (depth + 1 == passLimit)            //board at limit, children
+             {                                      //are left for next pass
+                 cutoff = true;
+                 depth--;
+                 continue;
+             }
+
+             if (moves[depth] == 4)                 //all children are searched
+             {
+                 depth--;
+                 continue;
+             }
+
+             if (moves[depth] == 0)                 //first child of board
+             {
+                 stoppedBy = budget.check(stats.getExpanded());
+                 if (stoppedBy != null)             //stop at limit of budget
+                 {
+                     stoppedAt = depth;
+                     return -1;
+                 }
+                 stats.expanded();
+             }
+
+             int neighbor = packer.neighbor(slots[depth], moves[depth]++);
+             if (neighbor < 0 || (depth > 0 && neighbor == slots[depth - 1]))
+                 continue;                          //no such neighbor, or move
+                                                    //goes back to parent
+             int offset = depth * words, next = offset + words;
+             System.arraycopy(path, offset, path, next, words);
+             packer.swap(path, next, slots[depth], neighbor);
+             stats.generated();
+
+             if (!table.visit(path, next, depth + 2))
+             {                                      //seen at same or smaller depth
+                 stats.duplicate();
+                 continue;
+             }
+
+             depth++;                               //push child
+             stats.open(depth + 1);
+             slots[depth] = neighbor;
+             moves[depth] = 0;
+
+             if (goal(path, next))                  //if child is goal
+                 return depth + 1;
+         }
+
+         return 0;
     }
 
-    //Method decides whether a board is goal
-    private boolean goal(Board board)
+    //Method returns number of boards kept in table, which is number of
+    //arrangements of symbols of final board up to a cap. A small board
+    //does not need a table as big as a large one
+    private static int tableSize(char[][] goal, int size)
     {
-        return identical(board, goal);            //compare board with goal
-    }                                             
+        Symbols symbols = new Symbols(goal, size);
+        int[] counts = new int[symbols.count()];    //slots with each symbol
+
+        double states = 1;                          //arrangements of symbols
+        for (int k = 0; k < size * size; k++)       //choose symbol of each slot,
+        {                                           //one symbol at a time
+            int index = symbols.index(goal[k / size][k % size]);
+            counts[index]++;
+            states = states * (k + 1) / counts[index];
+        }
 
-    //Method decides whether a board exists in a list
-    private boolean exists(Board board, LinkedList<Board> list)
+        return (int) Math.min(states, MAX_TABLE_SIZE);
+    }
+
+    //Method stops search when a limit of budget is reached. Board stored at
+    //an offset of an array is the next board on frontier, which is displayed
+    private void stop(SearchBudget.Limit limit, long[] states, int offset)
     {
-        for (int i = 0; i < list.size(); i++)    //compare board with each
-            if (identical(board, list.get(i)))   //element of list
-               return true;
+        char[][] array = new char[size][size];
+        packer.unpack(states, offset, array);
+        stats.stopped(limit, array);
 
-        return false;
+        System.out.println("budget exceeded: " + limit);
+        System.out.print(packer.text(states, offset));
     }
 
-    //Method decides whether two boards are identical
-    private boolean identical(Board p, Board q)
+    //Method creates children of a board
+    private void generate(NodeArena nodes, int board)
     {
-        for (int i = 0; i < size; i++)
-            for (int j = 0; j < size; j++)
-                if (p.array[i][j] != q.array[i][j])
-                    return false;      //if there is a mismatch then false
+        stats.expanded();
 
-        return true;                   //otherwise true
+        int slot = packer.find(nodes.states(), nodes.offset(board), blank);
+
+        for (int move = 0; move < 4; move++)    //add N, S, E, W children
+        {                                       //if they exist
+            int neighbor = packer.neighbor(slot, move);
+            if (neighbor >= 0)
+                createChild(nodes, board, slot, neighbor);
+        }
     }
 
-    //Method displays path from initial to current board
-    private void displayPath(Board board)
+    //Method creates a child of a board by swapping empty slot with a
+    //neighbor slot. Child is added unless it is in open or closed list
+    private void createChild(NodeArena nodes, int board, int slot, int neighbor)
     {
-        LinkedList<Board> list = new LinkedList<Board>();
+        System.arraycopy(nodes.states(), nodes.offset(board), child, 0, child.length);
 
-        Board current = board;         //start at current board
+        packer.swap(child, 0, slot, neighbor);       //swap empty slot
+        stats.generated();
 
-        while (current != null)        //go back towards initial board
-        {
-            list.addFirst(current);    //add boards to list
+        if (nodes.find(child, 0) < 0)                //if child is not in open and
+            nodes.add(child, 0, board, nodes.value(board) + 1);  //closed lists then add
+        else                                         //it one level below board
+            stats.duplicate();
+    }
 
-            current = current.parent;  //keep going back
-        }
-                                       //print boards in list
-        for (int i = 0; i <  list.size(); i++)  
-            displayBoard(list.get(i));
+    //Method decides whether a board is goal
+    private boolean goal(NodeArena nodes, int board)
+    {
+        return goal(nodes.states(), nodes.offset(board));
+    }
+
+    //Method decides whether board stored at an offset of an array is goal
+    private boolean goal(long[] states, int offset)
+    {
+        return packer.same(states, offset, goal);
     }
 
-    //Method displays board
-    private void displayBoard(Board board)
+    //Method displays path from initial to current board
+    private void displayPath(NodeArena nodes, int board)
     {
-        for (int i = 0; i < size; i++) //print each element of board
-        {
-            for (int j = 0; j < size; j++)
-                System.out.print(board.array[i][j] + " ");
-            System.out.println();
-        }   
-        System.out.println();     
+        stats.solved();
+
+        for (int node : nodes.path(board))   //print boards in path
+            System.out.print(packer.text(nodes.states(), nodes.offset(node)));
     }
 }
@@ -1,4 +1,5 @@
 import java.util.LinkedList;
+import java.util.Random;
 import java.util.Scanner;
 
 //This program plays tic-tac game using min-max algorithm
@@ -9,31 +10,148 @@ public class TicTac
     private final char PLAYER = '0';               //player
     private final int MIN = 0;                     //min level
     private final int MAX = 1;                     //max level
+    private final int SYMMETRIES = 8;              //rotations and reflections
+    private final int UNKNOWN = Integer.MIN_VALUE; //value of position not in table
 
     //Board class (inner class) 
     private class Board
     {
-        private char[][] array;                    //board array
+        private long computer;                     //locations of computer symbols
+        private long player;                       //locations of player symbols
+        private long[] hashes;                     //hash of board under each symmetry
 
-        //Constructor of Board class
-        private Board(int size)
+        //Constructor of Board class, all slots empty
+        private Board()
         {
-            array = new char[size][size];          //create array
-                                             
-            for (int i = 0; i < size; i++)         //fill array with empty slots   
-                for (int j = 0; j < size; j++)
-                    array[i][j] = EMPTY;
+            hashes = new long[SYMMETRIES];         //empty board hashes to 0
+        }
+    }
+
+    //Table of minmax values of positions (inner class). It is an open
+    //addressing table in primitive arrays. Each slot keeps the key of a
+    //position and its symbols in canonical form, so a position whose key
+    //is the same as another position's is not taken for it
+    private class Table
+    {
+        private long[] keys = new long[1024];      //key of each slot
+        private long[] computers = new long[1024]; //canonical computer symbols
+        private long[] players = new long[1024];   //canonical player symbols
+        private int[] values = new int[1024];      //value of each slot
+        private boolean[] used = new boolean[1024];//whether slot holds a position
+        private int count;                         //number of positions
+
+        //Method returns value of a position, or UNKNOWN if it is not in table
+        private int get(long key, long computer, long player)
+        {
+            int slot = find(key, computer, player);
+            return used[slot] ? values[slot] : UNKNOWN;
+        }
+
+        //Method puts value of a position in table
+        private void put(long key, long computer, long player, int value)
+        {
+            int slot = find(key, computer, player);
+            if (!used[slot])
+                count++;
+
+            keys[slot] = key;
+            computers[slot] = computer;
+            players[slot] = player;
+            values[slot] = value;
+            used[slot] = true;
+
+            if (2 * count > keys.length)           //keep table at most half full
+                grow();
+        }
+
+        //Method returns slot of a position, or free slot where it would go
+        private int find(long key, long computer, long player)
+        {
+            int mask = keys.length - 1;
+            int slot = (int) (key ^ (key >>> 32)) & mask;
+
+            while (used[slot] && (keys[slot] != key || computers[slot] != computer
+                                                    || players[slot] != player))
+                slot = (slot + 1) & mask;          //linear probing
+
+            return slot;
+        }
+
+        //Method doubles slots of table and puts every position in again
+        private void grow()
+        {
+            long[] oldKeys = keys, oldComputers = computers, oldPlayers = players;
+            int[] oldValues = values;
+            boolean[] oldUsed = used;
+
+            keys = new long[oldKeys.length * 2];
+            computers = new long[oldKeys.length * 2];
+            players = new long[oldKeys.length * 2];
+            values = new int[oldKeys.length * 2];
+            used = new boolean[oldKeys.length * 2];
+            count = 0;
+
+            for (int k = 0; k < oldKeys.length; k++)
+                if (oldUsed[k])
+                    put(oldKeys[k], oldComputers[k], oldPlayers[k], oldValues[k]);
         }
     }
 
     private Board board;                           //game board
     private int size;                              //size of board
-    
+    private long[] lines;                          //masks of rows, columns, diagonals
+    private long all;                              //mask of all locations
+    private int[][] symmetries;                    //location each location goes to
+                                                   //under each symmetry
+    private long[][] zobrist;                      //random key of each symbol at
+                                                   //each location
+    private long maxToMove;                        //key of max level to move
+    private Table table;                           //minmax values of positions seen,
+                                                   //kept for the whole game
     //Constructor of TicTac class
     public TicTac(int size)
     {
-        this.board = new Board(size);              //create game board 
+        if (size < 1 || size > 8)                  //locations must fit in a long
+            throw new IllegalArgumentException("board size must be 1 to 8");
+
+        this.board = new Board();                  //create game board 
         this.size = size;                          //set board size
+
+        this.lines = new long[2 * size + 2];       //location bits of each line,
+        for (int i = 0; i < size; i++)             //location (i, j) is bit i*size+j
+            for (int j = 0; j < size; j++)
+            {
+                long bit = 1L << (i * size + j);
+                lines[i] |= bit;                   //row i
+                lines[size + j] |= bit;            //column j
+                if (i == j)
+                    lines[2 * size] |= bit;        //left diagonal
+                if (i + j == size - 1)
+                    lines[2 * size + 1] |= bit;    //right diagonal
+            }
+        this.all = size == 8 ? -1L : (1L << (size * size)) - 1;
+
+        this.symmetries = new int[SYMMETRIES][size * size];
+        for (int i = 0; i < size; i++)             //rotations, reflections of
+            for (int j = 0; j < size; j++)         //each location
+            {
+                int r = size - 1 - i, c = size - 1 - j;
+                int[] images = {i * size + j, j * size + r, r * size + c, c * size + i,
+                                i * size + c, r * size + j, j * size + i, c * size + r};
+                for (int s = 0; s < SYMMETRIES; s++)
+                    symmetries[s][i * size + j] = images[s];
+            }
+
+        Random random = new Random(size);          //same keys every game
+        this.zobrist = new long[size * size][2];
+        for (int k = 0; k < size * size; k++)
+        {
+            zobrist[k][0] = random.nextLong();
+            zobrist[k][1] = random.nextLong();
+        }
+        this.maxToMove = random.nextLong();
+
+        this.table = new Table();
     }
 
     //Method plays game
@@ -80,23 +198,32 @@ public class TicTac
         int i = scanner.nextInt();
         int j = scanner.nextInt();
 
-        board.array[i][j] = PLAYER;                //place player symbol
+        place(board, i * size + j, PLAYER);        //place player symbol
 
         displayBoard(board);                       //diplay board
 
         return board;                              //return updated board
     }
 
-    //Method determines computer's move
+    //Method determines computer's move. A child that is a rotation or
+    //reflection of an earlier child has the same value, so it is skipped
     private Board computerMove(Board board)
     {                                              //generate children of board
         LinkedList<Board> children = generate(board, COMPUTER);
+        Table distinct = new Table();              //children already searched
 
         int maxIndex = -1;
         int maxValue = Integer.MIN_VALUE;
                                                    //find the child with
         for (int i = 0; i < children.size(); i++)  //largest minmax value
         {
+            Board child = children.get(i);
+            int s = symmetry(child);
+            long computer = image(child.computer, s), player = image(child.player, s);
+            if (distinct.get(child.hashes[s], computer, player) != UNKNOWN)
+                continue;
+            distinct.put(child.hashes[s], computer, player, 0);
+
             int currentValue = minmax(children.get(i), MIN);
             if (currentValue > maxValue)
             {
@@ -114,8 +241,27 @@ public class TicTac
         return result;                             //return updated board
     }
 
-    //Method computes minmax value of a board
+    //Method computes minmax value of a board. Values are kept in a table by
+    //key of board and level, with symbols of board in canonical form, so a
+    //position met again, or a rotation or reflection of it, is not searched
+    //again
     private int minmax(Board board, int level)
+    {
+        int s = symmetry(board);
+        long key = board.hashes[s] ^ (level == MAX ? maxToMove : 0);
+        long computer = image(board.computer, s), player = image(board.player, s);
+        int known = table.get(key, computer, player);
+
+        if (known != UNKNOWN)                      //position seen before
+            return known;
+
+        int value = search(board, level);
+        table.put(key, computer, player, value);
+        return value;
+    }
+
+    //Method searches minmax value of a board below it
+    private int search(Board board, int level)
     {
         if (computerWin(board))                    //utility is 1 if computer wins
             return 1;
@@ -165,14 +311,12 @@ public class TicTac
     {
         LinkedList<Board> children = new LinkedList<Board>();
                                                    //empty list of children
-        for (int i = 0; i < size; i++)
-            for (int j = 0; j < size; j++)         //go thru board
-                if (board.array[i][j] == EMPTY)
-                {                                  //if slot is empty
-                    Board child = copy(board);     //put the symbol and
-                    child.array[i][j] = symbol;    //create child board
-                    children.addLast(child);
-                }
+        for (long free = all & ~(board.computer | board.player); free != 0; free &= free - 1)
+        {                                          //go thru empty slots in order
+            Board child = copy(board);             //put the symbol and
+            place(child, Long.numberOfTrailingZeros(free), symbol);
+            children.addLast(child);               //create child board
+        }
 
         return children;                           //return list of children
     }
@@ -200,82 +344,87 @@ public class TicTac
     //by a symbol
     private boolean check(Board board, char symbol)
     {
-        for (int i = 0; i < size; i++)             //check each row
-            if (checkRow(board, i, symbol))
-               return true;
+        long stones = symbol == COMPUTER ? board.computer : board.player;
 
-        for (int i = 0; i < size; i++)             //check each column
-            if (checkColumn(board, i, symbol))
+        for (long line : lines)                    //line is occupied if all its
+            if ((stones & line) == line)           //locations hold the symbol
                 return true;
 
-        if (checkLeftDiagonal(board, symbol))      //check left diagonal
-            return true;
-
-        if (checkRightDiagonal(board, symbol))     //check right diagonal
-            return true;
+        return false;
+    }
 
-        return false;                          
+    //Method checks whether a board is full
+    private boolean full(Board board)
+    {
+        return (board.computer | board.player) == all;
     }
 
-    //Method checks whether a row is occupied by a symbol
-    private boolean checkRow(Board board, int i, char symbol)
+    //Method places a symbol at a location of a board, in place of any
+    //symbol there, and updates hash of board under each symmetry
+    private void place(Board board, int k, char symbol)
     {
-        for (int j = 0; j < size; j++)
-            if (board.array[i][j] != symbol)
-                return false;
+        long bit = 1L << k;
 
-        return true;
+        if ((board.computer & bit) != 0)           //take out symbol there
+            toggle(board, k, 0);
+        if ((board.player & bit) != 0)
+            toggle(board, k, 1);
+
+        toggle(board, k, symbol == COMPUTER ? 0 : 1);
     }
 
-    //Method checks whether a column is occupied by a symbol
-    private boolean checkColumn(Board board, int i, char symbol)
+    //Method flips symbol of a side (0 computer, 1 player) at a location and
+    //its key in hash of board under each symmetry
+    private void toggle(Board board, int k, int side)
     {
-        for (int j = 0; j < size; j++)
-            if (board.array[j][i] != symbol)
-                return false;
+        if (side == 0)
+            board.computer ^= 1L << k;
+        else
+            board.player ^= 1L << k;
 
-        return true;
+        for (int s = 0; s < SYMMETRIES; s++)
+            board.hashes[s] ^= zobrist[symmetries[s][k]][side];
     }
 
-    //Method checks whether left diagonal is occupied a symbol
-    private boolean checkLeftDiagonal(Board board, char symbol)
+    //Method returns symbol at a location of a board
+    private char symbol(Board board, int k)
     {
-        for (int i = 0; i < size; i++)
-            if (board.array[i][i] != symbol)
-               return false;
-
-        return true;
+        return (board.computer >>> k & 1) != 0 ? COMPUTER : (board.player >>> k & 1) != 0 ? PLAYER : EMPTY;
     }
 
-    //Method checks whether right diagonal is occupied by a symbol
-    private boolean checkRightDiagonal(Board board, char symbol)
+    //Method returns symmetry under which hash of a board is least. Hash of
+    //board under it is the key of board, the same for all its rotations
+    //and reflections, and image of board under it is canonical form
+    private int symmetry(Board board)
     {
-        for (int i = 0; i < size; i++)
-            if (board.array[i][size-1-i] != symbol)
-               return false;
+        int least = 0;
+
+        for (int s = 1; s < SYMMETRIES; s++)
+            if (board.hashes[s] < board.hashes[least])
+                least = s;
 
-        return true;
+        return least;
     }
 
-    //Method checks whether a board is full
-    private boolean full(Board board)
+    //Method returns locations of symbols after a symmetry
+    private long image(long stones, int s)
     {
-        for (int i = 0; i < size; i++)
-            for (int j = 0; j < size; j++)
-                if (board.array[i][j] == EMPTY)
-                   return false;
+        long result = 0;
+
+        for (; stones != 0; stones &= stones - 1)
+            result |= 1L << symmetries[s][Long.numberOfTrailingZeros(stones)];
 
-        return true;
+        return result;
     }
 
     //Method makes copy of a board
     private Board copy(Board board)
     {
-        Board result = new Board(size);      
+        Board result = new Board();      
 
-        for (int i = 0; i < size; i++)       
-            for (int j = 0; j < size; j++)
-                result.array[i][j] = board.array[i][j];
+        result.computer = board.computer;
+        result.player = board.player;
+        result.hashes = board.hashes.clone();
 
         return result;                       
     }
@@ -286,7 +435,7 @@ public class TicTac
         for (int i = 0; i < size; i++)
         {
             for (int j = 0; j < size; j++)
-                System.out.print(board.array[i][j]);
+                System.out.print(symbol(board, i * size + j));
             System.out.println();
         }
     }
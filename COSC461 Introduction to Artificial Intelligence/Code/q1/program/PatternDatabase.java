@@ -0,0 +1,379 @@
+package q1.program;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import search.Symbols;
+
+//Disjoint additive pattern database for sliding puzzle. Tiles of the goal
+//board are split into groups. For each group a table holds the number of
+//moves of group tiles needed to bring them home, for every placement of the
+//group tiles. Other tiles are ignored, so tables of different groups can be
+//added and the sum is still an admissible heuristic.
+//
+//Tables are built once by PatternDatabaseGenerator and written to a binary
+//file. Solvers map that file read only, so nothing is rebuilt or copied
+//into the heap.
+public class PatternDatabase
+{
+    private static final int MAGIC = 0x50444231;        //file tag "PDB1"
+    private static final byte UNSEEN = -1;              //placement not reached yet
+
+    private final MappedByteBuffer buffer;              //mapped file
+    private final int size;                             //board size
+    private final int cells;                            //size * size
+    private final char[] goal;                          //goal board in row order
+    private final int[][] groups;                       //tile slots of each group
+    private final int[] offsets;                        //start of each table in file
+    private final Symbols symbols;                      //symbols of goal board
+    private final int[] tileOf;                         //tile number of each symbol, -1
+                                                        //for blank
+    private final int[] groupOf;                        //group of each tile
+    private final int[] slotOf;                         //place of each tile in its group
+
+    //Constructor of PatternDatabase class, reads header of mapped file
+    private PatternDatabase(MappedByteBuffer buffer)
+    {
+        this.buffer = buffer;
+
+        if (buffer.getInt(0) != MAGIC)
+            throw new IllegalArgumentException("not a pattern database file");
+
+        int at = 4;
+        this.size = buffer.getInt(at);  at += 4;
+        this.cells = size * size;
+        this.goal = new char[cells];
+        for (int i = 0; i < cells; i++)                 //goal board
+        {
+            goal[i] = buffer.getChar(at);  at += 2;
+        }
+
+        this.symbols = new Symbols(goal);
+        this.tileOf = new int[symbols.count()];
+        Arrays.fill(tileOf, -1);
+        this.groupOf = new int[cells];
+        this.slotOf = new int[cells];
+        int count = buffer.getInt(at);  at += 4;
+        this.groups = new int[count][];
+        int tile = 0;
+        for (int g = 0; g < count; g++)                 //tiles of each group
+        {
+            int k = buffer.getInt(at);  at += 4;
+            groups[g] = new int[k];
+            for (int t = 0; t < k; t++)
+            {
+                char c = buffer.getChar(at);  at += 2;
+                tileOf[symbols.index(c)] = tile;
+                groupOf[tile] = g;
+                slotOf[tile] = t;
+                groups[g][t] = tile++;
+            }
+        }
+
+        this.offsets = new int[count];
+        for (int g = 0; g < count; g++)                 //tables follow header
+        {
+            offsets[g] = at;
+            at += (int) entries(cells, groups[g].length);
+        }
+    }
+
+    //Method maps a pattern database file read only
+    public static PatternDatabase load(String path) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(Path.of(path), StandardOpenOption.READ))
+        {
+            return new PatternDatabase(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    //Method decides whether database was built for a goal board
+    public boolean matches(char[][] board, int size)
+    {
+        if (size != this.size)
+            return false;
+
+        for (int i = 0; i < size; i++)
+            for (int j = 0; j < size; j++)
+                if (board[i][j] != goal[i * size + j])
+                    return false;
+
+        return true;
+    }
+
+    //Method computes heuristic value of board as the sum of table values
+    //of all groups. Scratch holds locations of tiles of a group, so it needs
+    //room for size * size locations
+    public int lookup(char[][] board, int[] scratch)
+    {
+        int value = 0;
+
+        for (int g = 0; g < groups.length; g++)         //add value of each group
+            value += lookup(board, g, scratch);
+
+        return value;
+    }
+
+    //Method computes table value of one group of board. A move changes the
+    //value of only the group of the tile that moved
+    public int lookup(char[][] board, int group, int[] scratch)
+    {
+        for (int i = 0; i < size; i++)                  //location of each group tile
+            for (int j = 0; j < size; j++)
+            {
+                int tile = tileOf[symbols.index(board[i][j])];
+                if (tile >= 0 && groupOf[tile] == group)
+                    scratch[slotOf[tile]] = i * size + j;
+            }
+
+        return buffer.get(offsets[group] + (int) rank(scratch, groups[group].length, cells));
+    }
+
+    //Method returns group of a tile
+    public int groupOf(char tile)
+    {
+        return groupOf[tileOf[symbols.index(tile)]];
+    }
+
+    //Method builds tables for a goal board and writes them to a file.
+    //Non-blank tiles are taken in row order and split into groups of at
+    //most groupSize tiles
+    public static void build(char[][] goal, int size, char blank, int groupSize, String path)
+        throws IOException
+    {
+        int cells = size * size;
+
+        if (cells > 64)
+            throw new IllegalArgumentException("board is too large for a pattern database");
+
+        char[] tiles = new char[cells - 1];             //non-blank tiles of goal
+        int[] home = new int[cells - 1];                //goal location of each
+        int blankHome = -1, count = 0;
+        for (int i = 0; i < size; i++)
+            for (int j = 0; j < size; j++)
+                if (goal[i][j] == blank)
+                    blankHome = i * size + j;
+                else
+                {
+                    tiles[count] = goal[i][j];
+                    home[count++] = i * size + j;
+                }
+
+        if (blankHome < 0 || count != cells - 1)
+            throw new IllegalArgumentException("goal board must have exactly one blank");
+
+        int groupCount = (count + groupSize - 1) / groupSize;
+
+        try (DataOutputStream out = new DataOutputStream(
+                 new BufferedOutputStream(new FileOutputStream(path))))
+        {
+            out.writeInt(MAGIC);                        //header
+            out.writeInt(size);
+            for (int i = 0; i < size; i++)
+                for (int j = 0; j < size; j++)
+                    out.writeChar(goal[i][j]);
+
+            out.writeInt(groupCount);
+            for (int g = 0; g < groupCount; g++)
+            {
+                int first = g * groupSize, k = Math.min(groupSize, count - first);
+                out.writeInt(k);
+                for (int t = 0; t < k; t++)
+                    out.writeChar(tiles[first + t]);
+            }
+
+            for (int g = 0; g < groupCount; g++)        //tables
+            {
+                int first = g * groupSize, k = Math.min(groupSize, count - first);
+                int[] groupHome = new int[k];
+                System.arraycopy(home, first, groupHome, 0, k);
+
+                out.write(buildTable(groupHome, blankHome, size));
+            }
+        }
+    }
+
+    //Method builds table of one group by a breadth first search back from
+    //goal. A search state is the locations of group tiles plus the blank.
+    //Moving the blank over a group tile costs one, over any other tile costs
+    //nothing. Each table entry is the cheapest state with that placement of
+    //group tiles, whatever the blank location
+    private static byte[] buildTable(int[] home, int blankHome, int size)
+    {
+        int cells = size * size, k = home.length;
+        long states = entries(cells, k + 1);
+
+        if (states > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("group of " + k + " tiles is too large");
+
+        byte[] cost = new byte[(int) states];           //cost of each state
+        Arrays.fill(cost, UNSEEN);
+
+        int[] positions = new int[k + 1];               //group tiles, then blank
+        int[] owner = new int[cells];                   //group tile at each location
+
+        System.arraycopy(home, 0, positions, 0, k);
+        positions[k] = blankHome;
+
+        IntQueue current = new IntQueue(), next = new IntQueue();
+        int start = (int) rank(positions, k + 1, cells);
+        cost[start] = 0;
+        current.add(start);
+
+        for (int level = 0; !current.isEmpty(); level++)
+        {
+            while (!current.isEmpty())
+            {
+                int state = current.remove();
+
+                if (state < 0)                          //reached by a move of a
+                {                                       //group tile on last level
+                    state = ~state;
+                    if (cost[state] != UNSEEN)
+                        continue;                       //already done
+                    cost[state] = (byte) level;
+                }
+
+                unrank(state, positions, k + 1, cells);
+                Arrays.fill(owner, -1);
+                for (int t = 0; t < k; t++)
+                    owner[positions[t]] = t;
+
+                int empty = positions[k];
+                int row = empty / size, column = empty % size;
+                int[] neighbors = {row > 0 ? empty - size : -1, row < size - 1 ? empty + size : -1,
+                                   column < size - 1 ? empty + 1 : -1, column > 0 ? empty - 1 : -1};
+
+                for (int neighbor : neighbors)
+                {
+                    if (neighbor < 0)
+                        continue;
+
+                    int tile = owner[neighbor];
+                    if (tile >= 0)                      //group tile slides into blank
+                        positions[tile] = empty;
+                    positions[k] = neighbor;
+
+                    int child = (int) rank(positions, k + 1, cells);
+
+                    if (tile >= 0)                      //costs one move
+                    {
+                        if (cost[child] == UNSEEN)      //cost is set when taken
+                            next.add(~child);           //out on next level
+                        positions[tile] = neighbor;
+                    }
+                    else if (cost[child] == UNSEEN)     //costs nothing
+                    {
+                        cost[child] = (byte) level;
+                        current.add(child);
+                    }
+
+                    positions[k] = empty;
+                }
+            }
+
+            IntQueue swap = current;                    //go to next level
+            current = next;
+            next = swap;
+        }
+
+        int blanks = cells - k;                         //blank is ranked last, so states
+        byte[] table = new byte[(int) (states / blanks)];//with same group placement
+        for (int entry = 0; entry < table.length; entry++)//are next to each other
+        {
+            int min = Integer.MAX_VALUE;
+            for (int b = 0; b < blanks; b++)
+            {
+                int value = cost[entry * blanks + b];
+                if (value >= 0 && value < min)
+                    min = value;
+            }
+            table[entry] = (byte) (min == Integer.MAX_VALUE ? 0 : min);
+        }
+
+        return table;
+    }
+
+    //Method counts placements of k distinct tiles on n locations
+    private static long entries(int n, int k)
+    {
+        long result = 1;
+        for (int t = 0; t < k; t++)
+            result *= n - t;
+        return result;
+    }
+
+    //Method numbers a placement of k tiles on n locations. Each tile
+    //contributes its location among locations not taken by earlier tiles
+    private static long rank(int[] positions, int k, int n)
+    {
+        long used = 0, index = 0;
+
+        for (int t = 0; t < k; t++)
+        {
+            int p = positions[t];
+            int free = p - Long.bitCount(used & ((1L << p) - 1));
+            index = index * (n - t) + free;
+            used |= 1L << p;
+        }
+
+        return index;
+    }
+
+    //Method turns a placement number back into locations of k tiles
+    private static void unrank(long index, int[] positions, int k, int n)
+    {
+        for (int t = k - 1; t >= 0; t--)               //free location of each tile
+        {
+            positions[t] = (int) (index % (n - t));
+            index /= n - t;
+        }
+
+        long used = 0;
+        for (int t = 0; t < k; t++)                    //turn free locations into
+        {                                              //board locations
+            int free = positions[t], p = 0;
+            while (true)
+            {
+                if ((used & (1L << p)) == 0 && free-- == 0)
+                    break;
+                p++;
+            }
+            positions[t] = p;
+            used |= 1L << p;
+        }
+    }
+
+    //Growable queue of ints used by table search (inner class)
+    private static class IntQueue
+    {
+        private int[] items = new int[1024];
+        private int head = 0, tail = 0;
+
+        private boolean isEmpty()
+        {
+            if (head == tail)                          //reuse storage once drained
+                head = tail = 0;
+            return head == tail;
+        }
+
+        private void add(int item)
+        {
+            if (tail == items.length)
+                items = Arrays.copyOf(items, items.length * 2);
+            items[tail++] = item;
+        }
+
+        private int remove()
+        {
+            return items[head++];
+        }
+    }
+}
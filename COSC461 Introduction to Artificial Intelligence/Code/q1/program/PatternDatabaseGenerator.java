@@ -0,0 +1,60 @@
+package q1.program;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Scanner;
+
+//Tool that builds pattern database for goal board of an input file.
+//Input file has the same layout as input files of SlidingPuzzleTester.
+//Usage: PatternDatabaseGenerator <input file> <database name> [group size]
+//Database is written to q1/pdb/<database name>
+public class PatternDatabaseGenerator {
+
+    public static void main(String[] args) throws IOException {
+
+        String inputFilePath = null;
+        String outputFilePath = null;
+        int groupSize = 6;                       //6-6-3 split for 4x4 board
+
+        if (args.length > 1) {
+            inputFilePath = args[0];
+            outputFilePath = "q1/pdb/" + args[1];
+            if (args.length > 2)
+                groupSize = Integer.parseInt(args[2]);
+        } else {
+            Scanner scanner = new Scanner(System.in);
+            System.out.println("I/O files not specified in args.");
+            System.out.print("Enter absolute input file path: ");
+            inputFilePath = scanner.nextLine();
+            System.out.print("Enter database file name: ");
+            outputFilePath = "q1/pdb/" + scanner.nextLine();
+        }
+
+        int size;
+        char[][] goal;
+        try {
+            Scanner scanner = new Scanner(new File(inputFilePath));
+            size = Integer.parseInt(scanner.nextLine());
+            scanner.nextLine();
+            for (int i = 0; i < size; i++)      //skip initial board
+                scanner.nextLine();
+            scanner.nextLine();
+            goal = new char[size][size];
+            for (int i = 0; i < size; i++) {
+                goal[i] = scanner.nextLine().replaceAll(" ", "").toCharArray();
+            }
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+
+        Files.createDirectories(Path.of(outputFilePath).getParent());
+
+        float clockStart = System.nanoTime();
+        PatternDatabase.build(goal, size, '0', groupSize, outputFilePath);
+        float clockEnd = System.nanoTime();
+        System.out.printf("Pattern database written to %s\nRuntime: %.3fms\n",
+                          outputFilePath, (clockEnd - clockStart) / 1000000);
+    }
+}
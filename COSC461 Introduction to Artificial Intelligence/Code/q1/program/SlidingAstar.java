@@ -1,18 +1,37 @@
 package q1.program;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import search.ResultSink;
+import search.SearchBudget;
+import search.SearchEngine;
+import search.SearchProblem;
+import search.SearchStats;
+import search.Solvability;
+import search.Symbols;
  
 //This program solves sliding puzzle using A* algorithm
 public class SlidingAstar
 {
     char swapChar = '0';
-    //Board class (inner class)
+    //Board class (inner class). Boards with same array are equal, so a
+    //board is its own key in hash tables
     private static class Board
     {
         private final char[][] array;                 //board array
         private int gvalue;                     //path cost
         private int hvalue;                     //heuristic value
-        private int fvalue;                     //gvalue plus hvalue
+        private int hash;                       //hash of array, 0 if not computed
+        private int rowWalk;                    //walking distance states of rows
+        private int columnWalk;                 //and columns, heuristic option 5
         private Board parent;                   //parent board
 
         //Constructor of board class
@@ -23,82 +42,431 @@ public class SlidingAstar
             for (int i = 0; i < size; i++)      //copy given array
                 System.arraycopy(array[i], 0, this.array[i], 0, size);
 
-            this.gvalue = 0;                    //path cost, heuristic value,
-            this.hvalue = 0;                    //fvalue are all 0
-            this.fvalue = 0;
+            this.gvalue = 0;                    //path cost and heuristic
+            this.hvalue = 0;                    //value are 0
 
             this.parent = null;                 //no parent
         }
+
+        //Method returns hash of board array, computed once. Array must not
+        //change after hash is computed
+        public int hashCode()
+        {
+            if (hash == 0)
+                hash = Arrays.deepHashCode(array);
+            return hash;
+        }
+
+        //Method decides whether a board has same array as another board
+        public boolean equals(Object other)
+        {
+            return other instanceof Board && Arrays.deepEquals(array, ((Board) other).array);
+        }
+    }
+
+    //Entry of anytime open list (inner class). An entry is stale once its
+    //board gets a newer entry or leaves open list
+    private static class Entry implements Comparable<Entry>
+    {
+        private final double key;               //gvalue plus weight times hvalue
+        private final long order;               //position in which entry was made
+        private final Board board;              //board of entry
+
+        //Constructor of entry class
+        private Entry(double key, long order, Board board)
+        {
+            this.key = key;
+            this.order = order;
+            this.board = board;
+        }
+
+        //Method orders entries on key, ties go to older entry
+        public int compareTo(Entry other)
+        {
+            int byKey = Double.compare(key, other.key);
+            return byKey != 0 ? byKey : Long.compare(order, other.order);
+        }
+    }
+
+    //Path found by anytime search with bound of its cost over cost of a
+    //shortest path (inner class). A solution never changes, so path and
+    //bound read from one solution always belong together
+    public static final class Solution
+    {
+        private final List<char[][]> path;      //boards from initial to goal
+        private final double bound;             //bound of cost over shortest cost
+
+        //Constructor of solution class
+        private Solution(List<char[][]> path, double bound)
+        {
+            this.path = Collections.unmodifiableList(path);
+            this.bound = bound;
+        }
+
+        //Method returns boards from initial to goal board
+        public List<char[][]> getPath()
+        {
+            return path;
+        }
+
+        //Method returns bound of path cost over cost of a shortest path. It
+        //is 1 once path is proved shortest
+        public double getBound()
+        {
+            return bound;
+        }
     }
 
     private final Board initial;                         //initial board
     private final Board goal;                            //goal board
     private int totalSearchedBoards;
+    private int swaps;                                   //boards on path found, 0 if none
+    private ResultSink sink;                             //where path is written
+    private SearchStats stats;                           //statistics of current search
+    private SearchBudget budget;                         //limits of search
     private final int size;                              //board size
     private final int heuristicFunction;                 //reference for switch
     private final int evaluationFunction;                //reference for swtich
+    private final PatternDatabase patterns;              //tables for heuristic option 3
+    private final Symbols symbols;                       //values of goal board
+    private final int[] homes;                           //goal location of each value
+    private final WalkingDistance rowWalks;              //tables for heuristic option 5
+    private final WalkingDistance columnWalks;
+    private final int[] lineGoals;                       //goal places of tiles in a line
+    private final int[] runs;                            //longest ordered run ending at each
+    private final int[] placements;                      //scratch of pattern database lookups
+    private final String unsolvable;                     //reason goal can not be reached
+    private static final double WEIGHT_STEP = 0.25;      //anytime weight drop per iteration
+    private double weight;                               //weight of h for options 5 and 6
+    private volatile Solution solution;                  //best anytime path, null if none
     //Constructor of SlidingAstar class
     public SlidingAstar(char[][] initial, char[][] goal, int size, int evaluationFunction, int heuristicFunction)
+    {
+        this(initial, goal, size, evaluationFunction, heuristicFunction, null);
+    }
+
+    //Constructor of SlidingAstar class with pattern database for heuristic option 3
+    public SlidingAstar(char[][] initial, char[][] goal, int size, int evaluationFunction, int heuristicFunction,
+                        PatternDatabase patterns)
     {
         this.size = size;                          //set size of board
         this.initial = new Board(initial, size);   //create initial board
         this.goal = new Board(goal, size);         //create goal board
         this.heuristicFunction = heuristicFunction;   //hold selection
         this.evaluationFunction = evaluationFunction; //hold selection
+        this.patterns = patterns;                     //hold tables
         this.totalSearchedBoards = 0;
+        this.swaps = 0;
+        this.sink = new ResultSink(swapChar).to(System.out, ResultSink.Format.BOARDS);
+                                                      //print to console by default
+        this.budget = new SearchBudget();             //no limits
+        this.weight = 2.0;                            //weight of heuristic value
+        this.unsolvable = Solvability.numbered(initial, goal, size, swapChar);  //check before search
+
+        this.symbols = new Symbols(goal, size);
+        this.homes = new int[symbols.count()];           //locate each value in goal
+        for (int i = size - 1; i >= 0; i--)              //board once, first location
+            for (int j = size - 1; j >= 0; j--)          //in row order wins
+                homes[symbols.index(goal[i][j])] = i * size + j;
+
+        this.lineGoals = new int[size];                  //scratch of linear conflicts
+        this.runs = new int[size];
+        this.placements = new int[size * size];
+
+        int blank = symbols.index(swapChar) < 0 ? 0 : home(swapChar);
+                                                         //walking distance tables
+        this.rowWalks = heuristicFunction == 5 ? WalkingDistance.of(size, blank / size) : null;
+        this.columnWalks = heuristicFunction == 5 ? WalkingDistance.of(size, blank % size) : null;
+
+        if (heuristicFunction == 3 && (patterns == null || !patterns.matches(goal, size)))
+            throw new IllegalArgumentException("heuristic 3 needs a pattern database built for the goal board");
+    }
+
+    //Method sets where path is written
+    public void setSink(ResultSink sink)
+    {
+        this.sink = sink;
+    }
+
+    //Method sets limits of search
+    public void setBudget(SearchBudget budget)
+    {
+        this.budget = budget;
+    }
+
+    //Method sets weight of heuristic value for evaluation options 5 and 6.
+    //Weight must be at least 1
+    public void setWeight(double weight)
+    {
+        if (weight < 1)
+            throw new IllegalArgumentException("weight must be at least 1");
+        this.weight = weight;
+    }
+
+    //Method returns bound on cost of path found by anytime search over cost
+    //of a shortest path. It is 1 once path is proved shortest
+    public double getSuboptimality()
+    {
+        Solution current = solution;
+        return current == null ? Double.POSITIVE_INFINITY : current.bound;
+    }
+
+    //Method returns best path found so far by anytime search together with
+    //its bound, or null if none. Safe to call from any thread
+    public Solution getSolution()
+    {
+        return solution;
     }
 
-    //Method solves sliding puzzle
-    public void solve()
-    {
-
-         LinkedList<Board> openList = new LinkedList<Board>();  //open list
-         LinkedList<Board> closedList = new LinkedList<Board>();//closed list
-
-         openList.addFirst(initial);   //add initial board to open list     
-
-         while (!openList.isEmpty())   //while open list has more boards
-         {
-             int best = selectBest(openList);       //select best board
-
-             Board board = openList.remove(best);   //remove board
-                                                    
-             closedList.addLast(board);             //add board to closed list
-
-             if (goal(board))                       //if board is goal
-             {
-
-                 displayPath(board);                //display path to goal
-                 return;                            //stop search
-             }
-             else                                   //if board is not goal
-             {
-                 LinkedList<Board> children = generate(board);//create children
-
-                 for (int i = 0; i < children.size(); i++)
-                 {                                     //for each child
-                     Board child = children.get(i);    
-                                                       
-                     if (!exists(child, closedList))   //if child is not in closed list
-                     {
-                          if (!exists(child, openList))//if child is not in open list
-                              openList.addLast(child); //add to open list
-                          else                          
-                          {                            //if child is already in open list
-                              int index = find(child, openList);
-                              if (child.fvalue < openList.get(index).fvalue)
-                              {                            //if fvalue of new copy
-                                  openList.remove(index);  //is less than old copy
-                                  openList.addLast(child); //replace old copy
-                              }                            //with new copy
-                          }                               
-                     }     
-                 }                                  
-             }                                       
+    //Method returns number of boards on path found by solve, 0 if none
+    public int getSwaps()
+    {
+        return swaps;
+    }
+
+    //Method returns number of boards checked against goal by solve
+    public int getSearchedBoards()
+    {
+        return totalSearchedBoards;
+    }
+
+    /*
+     * Function solves sliding puzzle and returns statistics of search.
+     * Evaluation function f options:
+    Option 1: f = h where h is heuristic function
+    Option 2: f = g where g is path cost function
+    Option 3: f = h + g where h is heuristic function and g is path cost function
+    Option 4: f = h + g searched by iterative deepening A*
+    Option 5: f = g + w * h where w is weight, searched by weighted A*
+    Option 6: f = g + w * h with w lowered until path is proved shortest (ARA*)
+     * */
+    public SearchStats solve()
+    {
+         stats = new SearchStats();
+         stats.start();
+         budget.start();
+
+         if (unsolvable != null)       //goal can not be reached, so
+         {                             //there is nothing to search
+             sink.noSolution(unsolvable);
+             stats.noSolution();
          }
+         else if (evaluationFunction == 6)  //anytime search keeps its lists
+             solveAnytime();                //between iterations
+         else
+             solveEngine();
+
+         stats.stop();
+         return stats;
+    }
 
-         System.out.println("no solution");            //no solution if there are
-    }                                                  //no boards in open list
+    //Method solves sliding puzzle with search engine. Evaluation function 1
+    //is greedy search, 2 is A* with no weight on hvalue (uniform cost), 3 is
+    //A*, 4 is iterative deepening A*, and 5 is weighted A*
+    private void solveEngine()
+    {
+        SearchEngine.Strategy strategy = evaluationFunction == 1 ? SearchEngine.Strategy.GREEDY
+                                       : evaluationFunction == 4 ? SearchEngine.Strategy.IDASTAR
+                                       : SearchEngine.Strategy.ASTAR;
+        double w = evaluationFunction == 2 ? 0 : evaluationFunction == 5 ? weight : 1;
+
+        SearchEngine<Board> engine = new SearchEngine<Board>(new Problem(), strategy)
+                                         .weight(w).budget(budget).stats(stats);
+        List<Board> path = engine.search();
+
+        if (path != null)                            //display path to goal
+            displayPath(path);
+        else if (engine.getLimit() != null)          //stop at limit of budget
+            stop(engine.getLimit(), engine.getBest());
+        else                                         //no solution if there are
+        {                                            //no boards left
+            sink.noSolution(null);
+            stats.noSolution();
+        }
+    }
+
+    //Sliding puzzle as a search problem (inner class). Children get their
+    //heuristic value from their parent, so heuristic is read from board
+    private class Problem implements SearchProblem<Board>
+    {
+        //Method returns initial board with its heuristic value
+        public Board initial()
+        {
+            stats.startHeuristic();
+            computeHeuristicValue(initial);
+            stats.stopHeuristic();
+            return initial;
+        }
+
+        //Method decides whether a board is goal
+        public boolean isGoal(Board board)
+        {
+            return goal(board);
+        }
+
+        //Method adds children of a board
+        public void successors(Board board, List<Board> successors)
+        {
+            successors.addAll(generate(board));
+        }
+
+        //Method returns heuristic value of a board
+        public int heuristic(Board board)
+        {
+            return board.hvalue;
+        }
+
+        //Method returns key of a board, board itself
+        public Object key(Board board)
+        {
+            return board;
+        }
+    }
+
+    //Method solves sliding puzzle using anytime repairing A* (ARA*). First
+    //iteration is weighted A* with given weight, so a path whose cost is at
+    //most weight times shortest cost is found quickly. Each next iteration
+    //lowers weight and repairs previous search instead of starting over:
+    //boards whose gvalue dropped after they were closed wait in an
+    //inconsistent list and join open list, which is ordered on new weight.
+    //Every better path is written to sink as a record of its own with its
+    //bound, and best path is written as final record when search ends. Search
+    //ends when path is proved shortest, or at limit of budget. Proof holds
+    //only if heuristic never overestimates, such as options 3 to 5; taxi
+    //distance here counts empty slot too, so it may end on a longer path
+    private void solveAnytime()
+    {
+        stats.startHeuristic();
+        computeHeuristicValue(initial);              //evaluate initial board
+        stats.stopHeuristic();
+
+        HashMap<Board, Board> seen = new HashMap<Board, Board>();     //every board made
+        LinkedHashMap<Board, Entry> open = new LinkedHashMap<Board, Entry>();  //live entry of boards
+        PriorityQueue<Entry> queue = new PriorityQueue<Entry>();      //in open list
+        HashSet<Board> closed = new HashSet<Board>();                 //closed list
+        LinkedHashSet<Board> incons = new LinkedHashSet<Board>();     //inconsistent list
+        long order = 0;
+
+        double w = weight;
+        Board found = identical(initial, goal) ? initial : null;  //goal board if made
+        int published = Integer.MAX_VALUE;                       //gvalue of path written
+        solution = null;
+
+        seen.put(initial, initial);
+        Entry first = new Entry(initial.hvalue * w, order++, initial);
+        open.put(initial, first);
+        queue.add(first);
+
+        while (true)
+        {
+            while (true)                             //improve path at weight w
+            {
+                while (!queue.isEmpty() && open.get(queue.peek().board) != queue.peek())
+                    queue.poll();                    //drop stale entries
+
+                SearchBudget.Limit hit = budget.check(stats.getExpanded());
+                if (hit != null)                     //stop at limit of budget,
+                {                                    //also between iterations
+                    if (found != null)               //best path so far is
+                        displayPath(found);          //final record
+                    else
+                        stop(hit, queue.isEmpty() ? initial : queue.peek().board);
+                    return;
+                }
+
+                if (queue.isEmpty() || (found != null && found.gvalue <= queue.peek().key))
+                    break;                           //no better path at weight w
+
+                stats.open(open.size());
+
+                Board board = queue.poll().board;    //remove best board
+                open.remove(board);
+                closed.add(board);
+                stats.closed(closed.size());
+                goal(board);                         //count searched board
+
+                stats.expanded();
+                LinkedList<Board> children = generate(board);//create children
+                stats.add(0, children.size(), 0);
+
+                for (int i = 0; i < children.size(); i++)
+                {                                    //for each child
+                    Board child = children.get(i);
+                    Board old = seen.get(child);
+
+                    if (old == null)                 //new board
+                    {
+                        seen.put(child, child);
+                        old = child;
+                        if (identical(child, goal))
+                            found = child;
+                    }
+                    else if (child.gvalue < old.gvalue)
+                    {                                //shorter path to old board
+                        old.gvalue = child.gvalue;
+                        old.parent = board;
+                    }
+                    else                             //no better than old board
+                    {
+                        stats.duplicate();
+                        continue;
+                    }
+
+                    if (closed.contains(old))        //closed boards wait for
+                        incons.add(old);             //next iteration
+                    else
+                    {
+                        Entry entry = new Entry(old.gvalue + w * old.hvalue, order++, old);
+                        open.put(old, entry);
+                        queue.add(entry);
+                    }
+                }
+            }
+
+            if (found == null)                       //no path at all
+            {
+                sink.noSolution(null);
+                stats.noSolution();
+                return;
+            }
+
+            double lower = Double.POSITIVE_INFINITY; //least gvalue plus hvalue of
+            for (Board board : open.keySet())        //boards left, a lower bound
+                lower = Math.min(lower, board.gvalue + board.hvalue);  //of shortest
+            for (Board board : incons)               //path cost
+                lower = Math.min(lower, board.gvalue + board.hvalue);
+            double bound = found.gvalue <= lower ? 1 //no board left leads to a
+                         : Math.max(1, Math.min(w, found.gvalue / lower));  //shorter path
+            solution = new Solution(pathOf(found), bound);
+
+            if (bound <= 1)                          //path is shortest, write
+            {                                        //it as final record
+                displayPath(found);
+                return;
+            }
+
+            if (found.gvalue < published)            //write better path
+            {
+                published = found.gvalue;
+                stats.solved();
+                swaps = solution.path.size();
+                sink.improved(solution.path, totalSearchedBoards, bound);
+            }
+
+            w = Math.max(1, w - WEIGHT_STEP);        //lower weight, move
+            for (Board board : incons)               //inconsistent boards to
+                open.put(board, null);               //open list, order open
+            incons.clear();                          //list on new weight and
+            queue.clear();                           //start new closed list
+            for (Board board : open.keySet())
+            {
+                Entry entry = new Entry(board.gvalue + w * board.hvalue, order++, board);
+                open.put(board, entry);
+                queue.add(entry);
+            }
+            closed.clear();
+        }
+    }
 
     //Method creates children of a board
     private LinkedList<Board> generate(Board board)
@@ -142,33 +510,27 @@ public class SlidingAstar
     {
         Board child = copy(board);                   //create copy of board
 
+        int x = i, y = j;                            //location swapped with empty slot
 
         if (direction == 'N')                        //swap empty slot to north
-        {
-            child.array[i][j] = child.array[i-1][j];
-            child.array[i-1][j] = swapChar;
-        }
+            x = i-1;
         else if (direction == 'S')                   //swap empty slot to south
-        {
-            child.array[i][j] = child.array[i+1][j];
-            child.array[i+1][j] = swapChar;
-        }
+            x = i+1;
         else if (direction == 'E')                   //swap empty slot to east
-        {
-            child.array[i][j] = child.array[i][j+1];
-            child.array[i][j+1] = swapChar;
-        }
+            y = j+1;
         else                                         //swap empty slot to west
-        {
-            child.array[i][j] = child.array[i][j-1];
-            child.array[i][j-1] = swapChar;
-        }
+            y = j-1;
+
+        child.array[i][j] = child.array[x][y];
+        child.array[x][y] = swapChar;
+
         child.gvalue = board.gvalue + 1;             //parent path cost plus one
         // child.hvalue = heuristic_M(child);           //heuristic value of child
         // child.fvalue = child.gvalue + child.hvalue;  //gvalue plus hvalue
         //modified last two lines of code
-        computeHeuristicValue(child);                //heuristic value computed in separate function
-        computeEvaluationFunctionValue(child);       //f value computed in separate function
+        stats.startHeuristic();
+        computeHeuristicValue(board, child, i, j, x, y); //heuristic value computed in separate function
+        stats.stopHeuristic();
         child.parent = board;                        //assign parent to child
         return child;                                //return child
     }
@@ -177,38 +539,73 @@ public class SlidingAstar
     * Heuristic function h options:
     Option 1: h = mismatches
     Option 2: h = taxi distance
+    Option 3: h = sum of disjoint pattern database values
+    Option 4: h = taxi distance of tiles plus linear conflicts
+    Option 5: h = walking distance of rows plus walking distance of columns
     * */
-    private void computeHeuristicValue(Board child)
+    private void computeHeuristicValue(Board board)
     {
         switch(heuristicFunction){
             case 1:
-                child.hvalue = heuristic_M(child);
+                board.hvalue = heuristic_M(board);
                 break;
             case 2:
-                child.hvalue = heuristic_D(child);
+                board.hvalue = heuristic_D(board);
+                break;
+            case 3:
+                board.hvalue = patterns.lookup(board.array, placements);
+                break;
+            case 4:
+                board.hvalue = heuristic_L(board);
+                break;
+            case 5:
+                board.hvalue = heuristic_W(board);
                 break;
         }
     }
     /*
-     * Function evaluates the f value of given board.
-     * Evaluation function f options:
-    Option 1: f = h where h is heuristic function
-    Option 2: f = g where g is path cost function
-    Option 3: f = h + g where h is heuristic function and g is path cost function
+     * Function evaluates the h value of a child from the h value of its parent.
+     * Only locations (i, j) and (x, y) differ between the two boards, so options
+     * 1 and 2 rescore just those two locations instead of the whole board.
+     * Option 3 looks up again only the group of the tile that moved.
+     * Option 4 also rescores conflicts of the two rows (vertical move) or the
+     * two columns (horizontal move) holding them; other lines are unchanged.
+     * Option 5 moves the row (or column) walking distance state of the parent.
      * */
-    private void computeEvaluationFunctionValue(Board board)
+    private void computeHeuristicValue(Board board, Board child, int i, int j, int x, int y)
     {
-        switch(evaluationFunction){
+        switch(heuristicFunction){
             case 1:
-                board.fvalue = board.hvalue;
+                child.hvalue = board.hvalue - misplaced(board, i, j) - misplaced(board, x, y)
+                                            + misplaced(child, i, j) + misplaced(child, x, y);
                 break;
             case 2:
-                board.fvalue = board.gvalue;
+                child.hvalue = board.hvalue - distance(board, i, j) - distance(board, x, y)
+                                            + distance(child, i, j) + distance(child, x, y);
                 break;
             case 3:
-                board.fvalue = board.hvalue + board.gvalue;
+                int group = patterns.groupOf(child.array[i][j]);   //group of tile that moved
+                child.hvalue = board.hvalue - patterns.lookup(board.array, group, placements)
+                                            + patterns.lookup(child.array, group, placements);
+                break;
+            case 4:
+                child.hvalue = board.hvalue - tileDistance(board, i, j) - tileDistance(board, x, y)
+                                            + tileDistance(child, i, j) + tileDistance(child, x, y)
+                             - (i != x ? conflicts(board, i, true) + conflicts(board, x, true)
+                                       : conflicts(board, j, false) + conflicts(board, y, false))
+                             + (i != x ? conflicts(child, i, true) + conflicts(child, x, true)
+                                       : conflicts(child, j, false) + conflicts(child, y, false));
+                break;
+            case 5:
+                int home = home(child.array[i][j]);      //goal of tile that moved
+                child.rowWalk = i != x ? rowWalks.move(board.rowWalk, x < i, home / size) : board.rowWalk;
+                child.columnWalk = j != y ? columnWalks.move(board.columnWalk, y < j, home % size)
+                                          : board.columnWalk;
+                child.hvalue = rowWalks.distance(child.rowWalk) + columnWalks.distance(child.columnWalk);
+                break;
+            default:
+                computeHeuristicValue(child);
                 break;
-
         }
     }
 
@@ -219,9 +616,8 @@ public class SlidingAstar
 
         for (int i = 0; i < size; i++)               //go thru board and
             for (int j = 0; j < size; j++)           //count misplaced values
-                if (board.array[i][j] != goal.array[i][j])
-                   value += 1;                       
-  
+                value += misplaced(board, i, j);
+
         return value;                                //return heuristic value
     }
 
@@ -229,56 +625,122 @@ public class SlidingAstar
     //Heuristic value is the sum of taxi distances of misplaced values
     private int heuristic_D(Board board)
     {
-        //initial heuristic value
-        int value = 0;
+        int value = 0;                               //initial heuristic value
+
+        for (int i = 0; i < size; i++)               //go thru board and add
+            for (int j = 0; j < size; j++)           //distances of misplaced values
+                value += distance(board, i, j);
+
+        return value;                                //return heuristic value
+    }
+
+    //Method computes heuristic value of board
+    //Heuristic value is the sum of taxi distances of tiles, empty slot left
+    //out, plus two moves for each tile that must leave its goal line to let
+    //other tiles of that line pass
+    private int heuristic_L(Board board)
+    {
+        int value = 0;                               //initial heuristic value
+
+        for (int i = 0; i < size; i++)               //go thru board and add
+            for (int j = 0; j < size; j++)           //distances of tiles
+                value += tileDistance(board, i, j);
+
+        for (int line = 0; line < size; line++)      //add conflicts of each
+            value += conflicts(board, line, true) + conflicts(board, line, false);
+                                                     //row and column
+        return value;                                //return heuristic value
+    }
+
+    //Method computes heuristic value of board
+    //Heuristic value is the sum of walking distances of rows and columns
+    private int heuristic_W(Board board)
+    {
+        int[][] rows = new int[size][size];          //tiles in each row (column)
+        int[][] columns = new int[size][size];       //by goal row (column)
+        int blankRow = 0, blankColumn = 0;
 
-        //go thru board
         for (int i = 0; i < size; i++)
             for (int j = 0; j < size; j++)
-                //if value mismatches in goal board    
-                if (board.array[i][j] != goal.array[i][j]) 
-                {                                
-                    //locate value in goal board
-                    int x = 0, y = 0;         
-                    boolean found = false;
-                    for (x = 0; x < size; x++)
-                    {                       
-                        for (y = 0; y < size; y++)
-                            if (goal.array[x][y] == board.array[i][j])
-                            {                 
-                                found = true; 
-                                break;
-                            } 
-                        if (found)
-                           break;                        
-                    }
-            
-                    //find city distance between two locations
-                    value += Math.abs(x-i) + Math.abs(y-j);
+                if (board.array[i][j] == swapChar)
+                {
+                    blankRow = i;
+                    blankColumn = j;
                 }
-                     
-        //return heuristic value               
-        return value;
+                else
+                {
+                    int home = home(board.array[i][j]);
+                    rows[i][home / size]++;
+                    columns[j][home % size]++;
+                }
+
+        board.rowWalk = rowWalks.state(rows, blankRow);
+        board.columnWalk = columnWalks.state(columns, blankColumn);
+        return rowWalks.distance(board.rowWalk) + columnWalks.distance(board.columnWalk);
     }
 
-    //Method locates the board with minimum fvalue in a list of boards
-    private int selectBest(LinkedList<Board> list)
+    //Method returns moves added by linear conflicts of a row (rows true) or
+    //a column. Tiles of the line whose goal is in the line must keep their
+    //goal order; all but the longest run in goal order leave the line and
+    //come back, two moves each
+    private int conflicts(Board board, int line, boolean rows)
     {
-        int minValue = list.get(0).fvalue;           //initialize minimum
-        int minIndex = 0;                            //value and location
+        int count = 0, longest = 0;                  //tiles at home line, longest run
 
-        for (int i = 0; i < list.size(); i++)
+        for (int k = 0; k < size; k++)
         {
-            int value = list.get(i).fvalue;
-            if (value < minValue)                    //updates minimums if
-            {                                        //board with smaller
-                minValue = value;                    //fvalue is found
-                minIndex  = i;
-            } 
+            char value = rows ? board.array[line][k] : board.array[k][line];
+            if (value == swapChar)
+                continue;
+
+            int home = home(value);
+            if ((rows ? home / size : home % size) != line)
+                continue;                            //goal in other line
+
+            int place = rows ? home % size : home / size;
+            int run = 1;                             //longest run ending here
+            for (int m = 0; m < count; m++)
+                if (lineGoals[m] < place && runs[m] + 1 > run)
+                    run = runs[m] + 1;
+
+            lineGoals[count] = place;
+            runs[count++] = run;
+            if (run > longest)
+                longest = run;
         }
 
-        return minIndex;                             //return minimum location
-    }   
+        return 2 * (count - longest);
+    }
+
+    //Method returns taxi distance of a tile to its location in goal board,
+    //0 for empty slot
+    private int tileDistance(Board board, int i, int j)
+    {
+        return board.array[i][j] == swapChar ? 0 : distance(board, i, j);
+    }
+
+    //Method returns goal location of a value
+    private int home(char value)
+    {
+        return homes[symbols.index(value)];
+    }
+
+    //Method returns 1 if value at a location mismatches goal board, else 0
+    private int misplaced(Board board, int i, int j)
+    {
+        return board.array[i][j] != goal.array[i][j] ? 1 : 0;
+    }
+
+    //Method returns taxi distance from a location to location of its value
+    //in goal board if value mismatches goal board, else 0
+    private int distance(Board board, int i, int j)
+    {
+        if (board.array[i][j] == goal.array[i][j])
+            return 0;
+
+        int home = home(board.array[i][j]);          //location in goal board
+        return Math.abs(home / size - i) + Math.abs(home % size - j);
+    }
 
     //Method creates copy of a board
     private Board copy(Board board)
@@ -294,26 +756,6 @@ public class SlidingAstar
 
     }                                             
 
-    //Method decides whether a board exists in a list
-    private boolean exists(Board board, LinkedList<Board> list)
-    {
-        for (int i = 0; i < list.size(); i++)    //compare board with each
-            if (identical(board, list.get(i)))   //element of list
-               return true;
-
-        return false;
-    }
-
-    //Method finds location of a board in a list
-    private int find(Board board, LinkedList<Board> list)
-    {
-        for (int i = 0; i < list.size(); i++)    //compare board with each
-            if (identical(board, list.get(i)))   //element of list
-               return i;
-
-        return -1;
-    }
-    
     //Method decides whether two boards are identical
     private boolean identical(Board p, Board q)
     {
@@ -325,36 +767,53 @@ public class SlidingAstar
         return true;                   //otherwise true
     }
 
-    //Method displays path from initial to current board
+    //Method stops search when a limit of budget is reached, and writes
+    //best board on frontier to sink
+    private void stop(SearchBudget.Limit limit, Board board)
+    {
+        stats.stopped(limit, board.array);
+        sink.stopped(limit, board.array);
+    }
+
+    //Method writes path from initial to current board to sink
     private void displayPath(Board board)
     {
-        LinkedList<Board> list = new LinkedList<Board>();
+        LinkedList<Board> path = new LinkedList<Board>();
 
         Board pointer = board;         //start at current board
 
         while (pointer != null)        //go back towards initial board
         {
-            list.addFirst(pointer);    //add boards to beginning of list
+            path.addFirst(pointer);    //add boards to beginning of list
 
             pointer = pointer.parent;  //keep going back
         }
-                                       //print boards in list
-        for (int i = 0; i < list.size(); i++) {
-            System.out.println("Board " + (i + 1)); //visibly count boards in path
-            displayBoard(list.get(i));
-        }
-        System.out.printf("Swaps: %s\nBoards Searched: %s", list.size(), totalSearchedBoards);
+
+        displayPath(path);
     }
 
-    //Method displays board
-    private void displayBoard(Board board)
+    //Method returns arrays of boards from initial to current board
+    private List<char[][]> pathOf(Board board)
     {
-        for (int i = 0; i < size; i++) //print each element of board
-        {
-            for (int j = 0; j < size; j++)
-                System.out.print(board.array[i][j] + " ");
-            System.out.println();
-        }   
-        System.out.println();     
+        LinkedList<char[][]> path = new LinkedList<char[][]>();
+
+        for (Board pointer = board; pointer != null; pointer = pointer.parent)
+            path.addFirst(pointer.array);
+
+        return path;
+    }
+
+    //Method writes path of boards from initial to goal board to sink
+    private void displayPath(List<Board> path)
+    {
+        stats.solved();
+
+        LinkedList<char[][]> list = new LinkedList<char[][]>();
+
+        for (Board board : path)       //go from initial board to goal
+            list.addLast(board.array);
+
+        swaps = list.size();
+        sink.solved(list, totalSearchedBoards);  //boards, swaps and boards searched
     }
 }
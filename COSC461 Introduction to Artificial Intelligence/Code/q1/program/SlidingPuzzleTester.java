@@ -1,29 +1,75 @@
 package q1.program;
 
 import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.PrintStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Scanner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import search.ResultSink;
+import search.SearchBudget;
+import search.SearchStats;
+import search.Solvability;
 
 /**///Tester program for given sliding board
 public class SlidingPuzzleTester {
 
-    public static void main(String[] args) throws FileNotFoundException {
+    //Instance read from an input file (inner class)
+    private static class Instance {
+        private int size = -1;
+        private char[][] initial;               //initial board
+        private char[][] goal;                  //final board
+        private int evaluationFunction = -1;
+        private int heuristicFunction = -1;
+        private String patternFilePath;
+        private double weight = 2.0;            //weight of h for evaluation functions 5 and 6
+    }
+
+    //Pattern databases loaded in batch mode, shared by instances that name the same file
+    private static final ConcurrentHashMap<String, PatternDatabase> loaded = new ConcurrentHashMap<>();
+
+    //Limits of each search, set by -nodes <boards>, -time <ms> and -memory <MB>
+    private static long maxNodes = Long.MAX_VALUE;
+    private static long maxMillis = Long.MAX_VALUE;
+    private static long maxBytes = Long.MAX_VALUE;
+
+    public static void main(String[] args) throws IOException {
 
         //main method for testing
-        int size = -1;
-        //initial board
-        char[][] initial = null;
-        //final board
-        char[][] goal = null;
-        int evaluationFunction = -1;
-        int heuristicFunction = -1;
+        readLimits(args);
+
+        if (args.length > 2 && args[0].equals("-batch")) {
+            //-batch <directory or glob> <results file name> [threads] [limits]
+            int threads = args.length > 3 && !args[3].startsWith("-") ? Integer.parseInt(args[3])
+                                          : Runtime.getRuntime().availableProcessors();
+            solveBatch(args[1], "q1/output/" + args[2], threads);
+            return;
+        }
+
         String inputFilePath = null;
         String outputFilePath = null;
+        ResultSink sink = new ResultSink('0');
 
         if (args.length > 1) {
             inputFilePath = args[0];
             outputFilePath = "q1/output/" + args[1];
+            //optional -moves <name> and -json <name> write same result again
+            for (int k = 2; k + 1 < args.length; k += 2) {
+                if (args[k].equals("-moves"))
+                    sink.to("q1/output/" + args[k + 1], ResultSink.Format.MOVES);
+                else if (args[k].equals("-json"))
+                    sink.to("q1/output/" + args[k + 1], ResultSink.Format.JSON);
+            }
         } else {
 
             try {
@@ -41,50 +87,168 @@ public class SlidingPuzzleTester {
         }
 
         File inputFile = new File(inputFilePath);
+        Instance instance = readInstance(inputFile);
+
+        //console and output file get the same text in one pass
+        sink.to(System.out, ResultSink.Format.BOARDS).to(outputFilePath, ResultSink.Format.BOARDS);
+        sink.begin(inputFile.getName());
+
+        //reject unreachable goal before loading tables or searching
+        String unsolvable = Solvability.numbered(instance.initial, instance.goal, instance.size, '0');
+        if (unsolvable != null) {
+            sink.noSolution(unsolvable);
+        } else {
+            PatternDatabase patterns = null;
+            if (instance.patternFilePath != null)
+                patterns = PatternDatabase.load(instance.patternFilePath);
+
+            SlidingAstar s = new SlidingAstar(instance.initial, instance.goal, instance.size,
+                    instance.evaluationFunction, instance.heuristicFunction, patterns);
+            s.setWeight(instance.weight);
+            s.setSink(sink);
+            s.setBudget(newBudget());
+            float clockStart = System.nanoTime();
+            SearchStats stats = s.solve();
+            float clockEnd = System.nanoTime();
+            float finalRunTime = (float) (clockEnd - clockStart);
+            sink.runtime(finalRunTime / 1000000);
+            sink.stats(stats);
+        }
+
+        sink.end();
+        sink.close();
+    }
+
+    //Method reads limits of search from optional -nodes, -time and -memory args
+    private static void readLimits(String[] args) {
+        for (int k = 0; k + 1 < args.length; k++) {
+            if (args[k].equals("-nodes"))
+                maxNodes = Long.parseLong(args[k + 1]);
+            else if (args[k].equals("-time"))
+                maxMillis = Long.parseLong(args[k + 1]);
+            else if (args[k].equals("-memory"))
+                maxBytes = Long.parseLong(args[k + 1]) * 1024 * 1024;
+        }
+    }
+
+    //Method creates budget with limits of search, one for each search
+    private static SearchBudget newBudget() {
+        return new SearchBudget().nodes(maxNodes).time(maxMillis).memory(maxBytes);
+    }
+
+    //Method reads size, boards, evaluation function, heuristic function,
+    //pattern database name and weight from an input file
+    private static Instance readInstance(File inputFile) {
+        Instance instance = new Instance();
         try {
             Scanner scanner = new Scanner(inputFile);
-            size = Integer.parseInt(scanner.nextLine());
+            int size = Integer.parseInt(scanner.nextLine());
             scanner.nextLine();
-            initial = new char[size][size];
-            goal = new char[size][size];
+            instance.size = size;
+            instance.initial = new char[size][size];
+            instance.goal = new char[size][size];
 
             for (int i = 0; i < size; i++) {
-                initial[i] = scanner.nextLine().replaceAll(" ", "").toCharArray();
+                instance.initial[i] = scanner.nextLine().replaceAll(" ", "").toCharArray();
             }
             scanner.nextLine();
             for (int i = 0; i < size; i++) {
-                goal[i] = scanner.nextLine().replaceAll(" ", "").toCharArray();
+                instance.goal[i] = scanner.nextLine().replaceAll(" ", "").toCharArray();
             }
 
             if (scanner.hasNextLine())
-                evaluationFunction = Integer.parseInt(scanner.next());
+                instance.evaluationFunction = Integer.parseInt(scanner.next());
             if (scanner.hasNextLine())
-                heuristicFunction = Integer.parseInt(scanner.next());
+                instance.heuristicFunction = Integer.parseInt(scanner.next());
+            if (instance.heuristicFunction == 3 && scanner.hasNext())   //pattern database name
+                instance.patternFilePath = "q1/pdb/" + scanner.next();  //written by PatternDatabaseGenerator
+            if ((instance.evaluationFunction == 5 || instance.evaluationFunction == 6)
+                    && scanner.hasNextDouble())                    //optional weight of h
+                instance.weight = scanner.nextDouble();
 
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
+        return instance;
+    }
 
-        PrintStream console = System.out;
-        PrintStream outputFile = new PrintStream(outputFilePath);
-        System.setOut(outputFile);
+    //Method solves every instance file of a directory, or every file matching
+    //a glob such as q1/nightly/*.txt, on a pool of threads in one run. One line
+    //per instance is written to results file, in file name order, with path
+    //length, boards searched and runtime
+    private static void solveBatch(String files, String resultsFilePath, int threads) throws IOException {
+        List<Path> inputs = new ArrayList<>();
+        Path path = Paths.get(files);
+        Path directory = Files.isDirectory(path) ? path : path.getParent();
+        String glob = Files.isDirectory(path) ? "*" : path.getFileName().toString();
+        if (directory == null)
+            directory = Paths.get(".");
 
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, glob)) {
+            for (Path input : stream)
+                if (Files.isRegularFile(input))
+                    inputs.add(input);
+        }
+        inputs.sort(null);
 
-        SlidingAstar s = new SlidingAstar(initial, goal, size, evaluationFunction, heuristicFunction);
-        float clockStart = System.nanoTime();
-        s.solve();
-        float clockEnd = System.nanoTime();
-        float finalRunTime = (float) (clockEnd - clockStart);
-        System.out.printf("\nRuntime: %.3fms",(finalRunTime / 1000000));
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads));
+        List<Future<String>> results = new ArrayList<>();
+        for (Path input : inputs)
+            results.add(pool.submit(() -> solveOne(input)));
+        pool.shutdown();
 
-        System.setOut(console);
-        try {
-            Scanner scanner = new Scanner(new File(outputFilePath));
-            while (scanner.hasNextLine()) {
-                System.out.println(scanner.nextLine());
+        try (PrintStream resultsFile = new PrintStream(resultsFilePath)) {
+            resultsFile.println("instance\tstatus\tswaps\tboards searched\truntime ms");
+            for (int i = 0; i < inputs.size(); i++) {
+                String line;
+                try {
+                    line = results.get(i).get();
+                } catch (ExecutionException e) {
+                    line = inputs.get(i).getFileName() + "\terror: " + e.getCause() + "\t\t\t";
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException(e);
+                }
+                resultsFile.println(line);
+                System.out.println(line);
             }
-        } catch (Exception e) {
-            throw new RuntimeException(e);
         }
     }
+
+    //Method solves one instance file for batch mode, with path printing
+    //thrown away, and returns its line of results
+    private static String solveOne(Path input) throws IOException {
+        Instance instance = readInstance(input.toFile());
+        String name = input.getFileName().toString();
+
+        String unsolvable = Solvability.numbered(instance.initial, instance.goal, instance.size, '0');
+        if (unsolvable != null)
+            return name + "\tno solution: " + unsolvable + "\t0\t0\t0.000";
+
+        PatternDatabase patterns = null;
+        if (instance.patternFilePath != null) {
+            patterns = loaded.computeIfAbsent(instance.patternFilePath, key -> {
+                try {
+                    return PatternDatabase.load(key);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+        }
+
+        SlidingAstar s = new SlidingAstar(instance.initial, instance.goal, instance.size,
+                instance.evaluationFunction, instance.heuristicFunction, patterns);
+        s.setWeight(instance.weight);
+        s.setSink(new ResultSink('0'));              //no destinations
+        s.setBudget(newBudget());
+        long clockStart = System.nanoTime();
+        SearchStats stats = s.solve();
+        long clockEnd = System.nanoTime();
+
+        String status = stats.getStatus() == SearchStats.Status.SOLVED ? "solved"
+                      : stats.getStatus() == SearchStats.Status.BUDGET_EXCEEDED ? "budget exceeded: " + stats.getLimit()
+                      : "no solution";
+        return String.format("%s\t%s\t%d\t%d\t%.3f", name, status,
+                s.getSwaps(), s.getSearchedBoards(), (clockEnd - clockStart) / 1000000.0);
+    }
 }
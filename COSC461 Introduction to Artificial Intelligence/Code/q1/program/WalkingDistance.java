@@ -0,0 +1,156 @@
+package q1.program;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+//Walking distance table of sliding puzzle. Looking only at rows, a board is
+//a count of tiles in each row by the goal row of each tile, plus the row of
+//the empty slot. A vertical move takes one tile from a row next to the empty
+//slot into the row of the empty slot. The table holds, for every such count,
+//the least number of vertical moves to the goal count, found by breadth
+//first search from the goal. Columns are looked at the same way, and since
+//each move is vertical or horizontal, row and column distances can be added
+//and the sum is still an admissible heuristic.
+//
+//States are numbered, and each state keeps the state each move leads to, so
+//a child board finds its state from its parent's in one array lookup. Tables
+//depend only on board size and goal line of the empty slot, so they are
+//built once and shared.
+public class WalkingDistance
+{
+    private static final int BITS = 3;                  //bits of one count in a key
+    private static final int MAX_SIZE = 4;              //largest size counts fit in a key
+
+    private static final ConcurrentHashMap<Integer, WalkingDistance> tables = new ConcurrentHashMap<>();
+
+    private final int size;                             //board size
+    private final HashMap<Long, Integer> states;        //number of each key
+    private final int[] distance;                       //moves of each state to goal
+    private final int[][] next;                         //state after a move, -1 if none
+
+    //Method returns table for a board size and goal line of empty slot
+    public static WalkingDistance of(int size, int blankLine)
+    {
+        if (size < 2 || size > MAX_SIZE)
+            throw new IllegalArgumentException("walking distance needs size from 2 to " + MAX_SIZE);
+
+        return tables.computeIfAbsent(size * MAX_SIZE + blankLine, key -> new WalkingDistance(size, blankLine));
+    }
+
+    //Constructor of WalkingDistance class, searches all states breadth first
+    //from goal state
+    private WalkingDistance(int size, int blankLine)
+    {
+        this.size = size;
+
+        int[][] counts = new int[size][size];           //goal state
+        for (int line = 0; line < size; line++)
+            counts[line][line] = line == blankLine ? size - 1 : size;
+
+        ArrayList<Long> keys = new ArrayList<Long>();   //keys in order found
+        ArrayList<Integer> depths = new ArrayList<Integer>();
+        this.states = new HashMap<Long, Integer>();
+
+        long start = key(counts, blankLine);
+        states.put(start, 0);
+        keys.add(start);
+        depths.add(0);
+
+        for (int s = 0; s < keys.size(); s++)           //breadth first search
+        {
+            int blank = decode(keys.get(s), counts);
+            for (int up = 0; up < 2; up++)
+                for (int line = 0; line < size; line++)
+                {
+                    int[][] moved = move(counts, blank, up == 1, line);
+                    if (moved == null)
+                        continue;
+
+                    long key = key(moved, blank + (up == 1 ? -1 : 1));
+                    if (!states.containsKey(key))
+                    {
+                        states.put(key, keys.size());
+                        keys.add(key);
+                        depths.add(depths.get(s) + 1);
+                    }
+                }
+        }
+
+        this.distance = new int[keys.size()];
+        this.next = new int[keys.size()][2 * size];
+        for (int s = 0; s < keys.size(); s++)           //moves between states
+        {
+            distance[s] = depths.get(s);
+            int blank = decode(keys.get(s), counts);
+            for (int up = 0; up < 2; up++)
+                for (int line = 0; line < size; line++)
+                {
+                    int[][] moved = move(counts, blank, up == 1, line);
+                    next[s][up * size + line] = moved == null ? -1
+                        : states.get(key(moved, blank + (up == 1 ? -1 : 1)));
+                }
+        }
+    }
+
+    //Method returns state of counts of tiles in each line by goal line, with
+    //empty slot in a line
+    public int state(int[][] counts, int blankLine)
+    {
+        return states.get(key(counts, blankLine));
+    }
+
+    //Method returns state after empty slot moves up (to lower line) or down,
+    //taking the place of a tile whose goal is in a line
+    public int move(int state, boolean up, int goalLine)
+    {
+        return next[state][(up ? size : 0) + goalLine];
+    }
+
+    //Method returns least number of moves from a state to goal state
+    public int distance(int state)
+    {
+        return distance[state];
+    }
+
+    //Method returns counts after empty slot in a line moves up or down in
+    //place of a tile whose goal is in a line, or null if there is no such tile
+    private int[][] move(int[][] counts, int blank, boolean up, int goalLine)
+    {
+        int from = blank + (up ? -1 : 1);               //line the tile leaves
+        if (from < 0 || from >= size || counts[from][goalLine] == 0)
+            return null;
+
+        int[][] moved = new int[size][];
+        for (int line = 0; line < size; line++)
+            moved[line] = counts[line].clone();
+        moved[from][goalLine]--;
+        moved[blank][goalLine]++;
+        return moved;
+    }
+
+    //Method packs counts and line of empty slot into a key
+    private long key(int[][] counts, int blankLine)
+    {
+        long key = blankLine;
+
+        for (int line = 0; line < size; line++)
+            for (int goalLine = 0; goalLine < size; goalLine++)
+                key = (key << BITS) | counts[line][goalLine];
+
+        return key;
+    }
+
+    //Method unpacks a key into counts and returns line of empty slot
+    private int decode(long key, int[][] counts)
+    {
+        for (int line = size - 1; line >= 0; line--)
+            for (int goalLine = size - 1; goalLine >= 0; goalLine--)
+            {
+                counts[line][goalLine] = (int) (key & ((1 << BITS) - 1));
+                key >>>= BITS;
+            }
+
+        return (int) key;
+    }
+}
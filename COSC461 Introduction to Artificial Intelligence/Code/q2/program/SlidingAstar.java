@@ -1,17 +1,42 @@
 package q2.program;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.LinkedList;
+import java.util.List;
+
+import search.ResultSink;
+import search.SearchBudget;
+import search.SearchEngine;
+import search.SearchProblem;
+import search.SearchStats;
+import search.Solvability;
+import search.Symbols;
 
 //This program solves sliding puzzle using A* algorithm
 public class SlidingAstar {
-    //Board class (inner class)
+    private static final int OTHER = 0, DIGIT = 1, RED = 2, GREEN = 3;   //color classes
+
+    //Whether values of two color classes can be swapped: a digit with R or
+    //G, and R with G
+    private static final boolean[][] SWAPS = {
+        {false, false, false, false},
+        {false, false, true,  true },
+        {false, true,  false, true },
+        {false, true,  true,  false}};
+
+    //Board class (inner class). Boards with same array are equal, so a
+    //board is its own key in hash tables
     private class Board {
         private char[][] array;                 //board array
+        private int hash;                       //hash of array, 0 if not computed
         private int gvalue;                     //path cost
         private int hvalue;                     //heuristic value
-        private int fvalue;                     //gvalue plus hvalue
-        private Board parent;                   //parent board
-
+        private long[] masks;                   //locations of each class of identical
+                                                //values, heuristic option 2
+        private int distance;                   //least total taxi distance to goal,
+                                                //heuristic option 2
         //Constructor of board class
         private Board(char[][] array, int size) {
             this.array = new char[size][size];  //create board array
@@ -20,154 +45,208 @@ public class SlidingAstar {
                 for (int j = 0; j < size; j++)
                     this.array[i][j] = array[i][j];
 
-            this.gvalue = 0;                    //path cost, heuristic value,
-            this.hvalue = 0;                    //fvalue are all 0
-            this.fvalue = 0;
+            this.gvalue = 0;                    //path cost and heuristic
+            this.hvalue = 0;                    //value are 0
+        }
+
+        //Method returns hash of board array, computed once. Array must not
+        //change after hash is computed
+        public int hashCode() {
+            if (hash == 0)
+                hash = Arrays.deepHashCode(array);
+            return hash;
+        }
 
-            this.parent = null;                 //no parent
+        //Method decides whether a board has same array as another board
+        public boolean equals(Object other) {
+            return other instanceof Board && Arrays.deepEquals(array, ((Board) other).array);
         }
     }
 
     private Board initial;                         //initial board
     private Board goal;                            //goal board
     private int size;                              //board size
-
-    //Constructor of SlidingAstar class
+    private Symbols symbols;                       //values of goal board
+    private int[] colors;                          //color class of each value
+    private int[] homes;                           //goal location of each value
+    private int[] edges;                           //pairs of neighbor locations
+    private int heuristicFunction;                 //reference for heuristic
+    private int[] classes;                         //class of each value held more than
+                                                   //once in goal board, else -1
+    private int[][] targets;                       //goal locations of each class
+    private List<HashMap<Long, Integer>> matchings;  //least distance of class locations
+    private String unsolvable;                     //reason goal can not be reached
+    private ResultSink sink;                       //where path is written
+    private SearchStats stats;                     //statistics of current search
+    private SearchBudget budget;                   //limits of search
+
+    //Constructor of SlidingAstar class with misplaced values heuristic
     public SlidingAstar(char[][] initial, char[][] goal, int size) {
+        this(initial, goal, size, 1);
+    }
+
+    //Constructor of SlidingAstar class with a heuristic function:
+    //1 for misplaced values, 2 for matching of identical values
+    public SlidingAstar(char[][] initial, char[][] goal, int size, int heuristicFunction) {
         this.size = size;                          //set size of board
         this.initial = new Board(initial, size);   //create initial board
         this.goal = new Board(goal, size);         //create goal board
-    }
+        this.unsolvable = Solvability.colored(initial, goal, size);  //check before search
+        this.sink = new ResultSink((char) 0).to(System.out, ResultSink.Format.BOARDS);
+                                                   //print to console by default
+        this.budget = new SearchBudget();          //no limits
+
+        this.symbols = new Symbols(goal, size);
+        this.colors = new int[symbols.count()];
+        for (int v = 0; v < symbols.count(); v++)
+            colors[v] = color(symbols.symbol(v));
+
+        this.homes = new int[symbols.count()];           //locate each value in goal
+        for (int i = size - 1; i >= 0; i--)              //board once, first location
+            for (int j = size - 1; j >= 0; j--)          //in row order wins
+                homes[symbols.index(goal[i][j])] = i * size + j;
+
+        int count = 0;                                   //each pair of neighbors once,
+        this.edges = new int[4 * size * (size - 1)];     //in order of first location
+        for (int k = 0; k < size * size; k++) {          //in row order, south then east
+            if (k / size != size - 1) { edges[count++] = k; edges[count++] = k + size; }
+            if (k % size != size - 1) { edges[count++] = k; edges[count++] = k + 1; }
+        }
 
-    //Method solves sliding puzzle
-    public void solve() {
-        LinkedList<Board> openList = new LinkedList<Board>();  //open list
-        LinkedList<Board> closedList = new LinkedList<Board>();//closed list
-
-        openList.addFirst(initial);   //add initial board to open list
-
-        while (!openList.isEmpty())   //while open list has more boards
-        {
-            int best = selectBest(openList);       //select best board
-
-            Board board = openList.remove(best);   //remove board
-
-            closedList.addLast(board);             //add board to closed list
-
-            if (goal(board))                       //if board is goal
-            {
-                displayPath(board);                //display path to goal
-                return;                            //stop search
-            } else                                   //if board is not goal
-            {
-                LinkedList<Board> children = generate(board);//create children
-
-                for (int i = 0; i < children.size(); i++) {                                     //for each child
-                    Board child = children.get(i);
-
-                    if (!exists(child, closedList))   //if child is not in closed list
-                    {
-                        if (!exists(child, openList))//if child is not in open list
-                            openList.addLast(child); //add to open list
-                        else {                            //if child is already in open list
-                            int index = find(child, openList);
-                            if (child.fvalue < openList.get(index).fvalue) {                            //if fvalue of new copy
-                                openList.remove(index);  //is less than old copy
-                                openList.addLast(child); //replace old copy
-                            }                            //with new copy
-                        }
-                    }
+        this.heuristicFunction = heuristicFunction;
+        if (heuristicFunction == 2) {
+            if (size * size > Long.SIZE)
+                throw new IllegalArgumentException("heuristic 2 needs at most " + Long.SIZE + " locations");
+
+            int[] counts = new int[symbols.count()];           //find values held more
+            for (char[] row : goal)                            //than once, one class
+                for (char value : row)                         //each
+                    counts[symbols.index(value)]++;
+
+            this.classes = new int[symbols.count()];
+            Arrays.fill(classes, -1);
+            ArrayList<int[]> found = new ArrayList<int[]>();
+            for (int k = 0; k < size * size; k++) {
+                int value = symbols.index(goal[k / size][k % size]);
+                if (counts[value] > 1 && classes[value] < 0) {
+                    classes[value] = found.size();
+                    found.add(new int[counts[value]]);
+                    counts[value] = 0;                         //next goal location
                 }
+                if (classes[value] >= 0)
+                    found.get(classes[value])[counts[value]++] = k;
             }
+
+            this.targets = found.toArray(new int[0][]);
+            this.matchings = new ArrayList<HashMap<Long, Integer>>(targets.length);
+            for (int c = 0; c < targets.length; c++)
+                matchings.add(new HashMap<Long, Integer>());
         }
+    }
 
-        System.out.println("no solution");            //no solution if there are
-    }                                                  //no boards in open list
-
-    //Method creates children of a board
-    private LinkedList<Board> generate(Board board) {
-        int i = 0, j = 0;
-        boolean found = false;
-        LinkedList<Board> children = new LinkedList<Board>();//list of children
-        boolean north, south, east, west;
-        for (i = 0; i < size; i++)              //check items in board
-        {
-            for (j = 0; j < size; j++)
-
-                if (Character.isDigit(board.array[i][j])) {
-                    //decide whether compatible neighbor
-                    north = (i != 0) && ((board.array[i - 1][j] == 'R') || (board.array[i - 1][j] == 'G'));          //has N, S, E, W neighbors
-                    south = (i != size - 1) && ((board.array[i + 1][j] == 'R') || (board.array[i + 1][j] == 'G'));
-                    east = (j != size - 1) && ((board.array[i][j + 1] == 'R') || (board.array[i][j + 1] == 'G'));
-                    west = (j != 0) && ((board.array[i][j - 1] == 'R') || (board.array[i][j - 1] == 'G'));
-                    if (north || south || east || west) {
-                        if (north) children.addLast(createChild(board, i, j, 'N')); //add N, S, E, W
-                        if (south) children.addLast(createChild(board, i, j, 'S')); //children if
-                        if (east) children.addLast(createChild(board, i, j, 'E'));  //they exist
-                        if (west) children.addLast(createChild(board, i, j, 'W'));
-                    }
-                } else if (board.array[i][j] == 'G') {
-                    //decide whether compatible neighbor
-                    north = (i != 0) && ((board.array[i - 1][j] == 'R') || (Character.isDigit(board.array[i - 1][j])));          //has N, S, E, W neighbors
-                    south = (i != size - 1) && ((board.array[i + 1][j] == 'R') || (Character.isDigit(board.array[i + 1][j])));
-                    east = (j != size - 1) && ((board.array[i][j + 1] == 'R') || (Character.isDigit(board.array[i][j + 1])));
-                    west = (j != 0) && ((board.array[i][j - 1] == 'R') || (Character.isDigit(board.array[i][j - 1])));
-                    if (north || south || east || west) {
-                        if (north) children.addLast(createChild(board, i, j, 'N')); //add N, S, E, W
-                        if (south) children.addLast(createChild(board, i, j, 'S')); //children if
-                        if (east) children.addLast(createChild(board, i, j, 'E'));  //they exist
-                        if (west) children.addLast(createChild(board, i, j, 'W'));
-                    }
-                } else if (board.array[i][j] == 'R') {
-                    //decide whether compatible neighbor
-                    north = (i != 0) && ((board.array[i - 1][j] == 'G') || (Character.isDigit(board.array[i - 1][j])));      //has N, S, E, W neighbors
-                    south = (i != size - 1) && ((board.array[i + 1][j] == 'G') || (Character.isDigit(board.array[i + 1][j])));
-                    east = (j != size - 1) && ((board.array[i][j + 1] == 'G') || (Character.isDigit(board.array[i][j + 1])));
-                    west = (j != 0) && ((board.array[i][j - 1] == 'G') || (Character.isDigit(board.array[i][j - 1])));
-                    if (north || south || east || west) {
-                        if (north) children.addLast(createChild(board, i, j, 'N')); //add N, S, E, W
-                        if (south) children.addLast(createChild(board, i, j, 'S')); //children if
-                        if (east) children.addLast(createChild(board, i, j, 'E'));  //they exist
-                        if (west) children.addLast(createChild(board, i, j, 'W'));
-                    }
-                }
+    //Method sets where path is written
+    public void setSink(ResultSink sink) {
+        this.sink = sink;
+    }
+
+    //Method sets limits of search
+    public void setBudget(SearchBudget budget) {
+        this.budget = budget;
+    }
+
+    //Method solves sliding puzzle and returns statistics of search
+    public SearchStats solve() {
+        stats = new SearchStats();
+        stats.start();
+        budget.start();
+
+        if (unsolvable != null)       //goal can not be reached, so
+        {                             //there is nothing to search
+            sink.noSolution(unsolvable);
+            stats.noSolution();
+        } else
+            search();
+
+        stats.stop();
+        return stats;
+    }
+
+    //Method searches boards in order of fvalue with search engine
+    private void search() {
+        SearchEngine<Board> engine = new SearchEngine<Board>(new Problem(), SearchEngine.Strategy.ASTAR)
+                                         .budget(budget).stats(stats);
+        List<Board> path = engine.search();
+
+        if (path != null)                             //display path to goal
+            displayPath(path);
+        else if (engine.getLimit() != null) {         //stop at limit of budget
+            Board best = engine.getBest();            //with best board on frontier
+            stats.stopped(engine.getLimit(), best.array);
+            sink.stopped(engine.getLimit(), best.array);
+        } else {                                      //no solution if there are
+            sink.noSolution(null);                    //no boards in open list
+            stats.noSolution();
+        }
+    }
 
+    //Colored sliding puzzle as a search problem (inner class). Children get
+    //their heuristic value from their parent, so heuristic is read from board
+    private class Problem implements SearchProblem<Board> {
+        //Method returns initial board with its heuristic value
+        public Board initial() {
+            stats.startHeuristic();
+            initial.hvalue = heuristicFunction == 2 ? heuristic_A(initial) : heuristic_M(initial);
+            stats.stopHeuristic();
+            return initial;
         }
 
+        //Method decides whether a board is goal
+        public boolean isGoal(Board board) {
+            return goal(board);
+        }
+
+        //Method adds children of a board
+        public void successors(Board board, List<Board> successors) {
+            generate(board, successors);
+        }
+
+        //Method returns heuristic value of a board
+        public int heuristic(Board board) {
+            return board.hvalue;
+        }
 
-        return children;                        //return children
+        //Method returns key of a board, board itself
+        public Object key(Board board) {
+            return board;
+        }
     }
 
-    //Method creates a child of a board by swapping empty slot in a 
-    //given direction
-    private Board createChild(Board board, int i, int j, char direction) {
-        Board child = copy(board);                   //create copy of board
-        char temp = board.array[i][j];
-        if (direction == 'N')                        //swap empty slot to north
-        {
-            child.array[i][j] = child.array[i - 1][j];
-            child.array[i - 1][j] = temp;
-        } else if (direction == 'S')                   //swap empty slot to south
-        {
-            child.array[i][j] = child.array[i + 1][j];
-            child.array[i + 1][j] = temp;
-        } else if (direction == 'E')                   //swap empty slot to east
-        {
-            child.array[i][j] = child.array[i][j + 1];
-            child.array[i][j + 1] = temp;
-        } else                                         //swap empty slot to west
-        {
-            child.array[i][j] = child.array[i][j - 1];
-            child.array[i][j - 1] = temp;
+    //Method adds children of a board to a list, one for each pair of
+    //neighbors that can be swapped
+    private void generate(Board board, List<Board> children) {
+        for (int e = 0; e < edges.length; e += 2) {
+            int p = edges[e], q = edges[e + 1];
+            int i = p / size, j = p % size, x = q / size, y = q % size;
+
+            if (SWAPS[colors[symbols.index(board.array[i][j])]][colors[symbols.index(board.array[x][y])]])
+                children.add(createChild(board, i, j, x, y));
         }
+    }
 
-        child.gvalue = board.gvalue + 1;             //parent path cost plus one
+    //Method creates a child of a board by swapping values at locations
+    //(i, j) and (x, y)
+    private Board createChild(Board board, int i, int j, int x, int y) {
+        Board child = copy(board);                   //create copy of board
 
-        child.hvalue = heuristic_M(child);           //heuristic value of child
+        child.array[i][j] = board.array[x][y];
+        child.array[x][y] = board.array[i][j];
 
-        child.fvalue = child.gvalue + child.hvalue;  //gvalue plus hvalue
+        child.gvalue = board.gvalue + 1;             //parent path cost plus one
 
-        child.parent = board;                        //assign parent to child
+        stats.startHeuristic();
+        child.hvalue = heuristicFunction == 2 ? heuristic_A(board, child, i, j, x, y)
+                                              : heuristic_M(board, child, i, j, x, y);
+        stats.stopHeuristic();
 
         return child;                                //return child
     }
@@ -178,123 +257,170 @@ public class SlidingAstar {
 
         for (int i = 0; i < size; i++)               //go thru board and
             for (int j = 0; j < size; j++)           //count misplaced values
-                if (board.array[i][j] != goal.array[i][j]) value += 1;
+                value += misplaced(board, i, j);
 
         return value;                                //return heuristic value
     }
 
-    //Method computes heuristic value of board
-    //Heuristic value is the sum of taxi distances of misplaced values
-    private int heuristic_D(Board board) {
-        //initial heuristic value
-        int value = 0;
+    //Method computes heuristic value of child from heuristic value of its
+    //parent board. Only locations (i, j) and (x, y) differ, so only they
+    //are counted again
+    private int heuristic_M(Board board, Board child, int i, int j, int x, int y) {
+        return board.hvalue - misplaced(board, i, j) - misplaced(board, x, y)
+                            + misplaced(child, i, j) + misplaced(child, x, y);
+    }
+
+    //Method computes heuristic value of board based on matching of values
+    //to goal locations. A swap moves two values one step each, so half the
+    //least total taxi distance of values to goal locations, rounded up, never
+    //overestimates. Values held once go to their goal location. Identical
+    //values of a class go to goal locations of that class in the cheapest
+    //way, found by the Hungarian method and cached per class
+    private int heuristic_A(Board board) {
+        board.masks = new long[targets.length];
+        board.distance = 0;
 
-        //go thru board
         for (int i = 0; i < size; i++)
-            for (int j = 0; j < size; j++)
-                //if value mismatches in goal board    
-                if (board.array[i][j] != goal.array[i][j]) {
-                    //locate value in goal board
-                    int x = 0, y = 0;
-                    boolean found = false;
-                    for (x = 0; x < size; x++) {
-                        for (y = 0; y < size; y++)
-                            if (goal.array[x][y] == board.array[i][j]) {
-                                found = true;
-                                break;
-                            }
-                        if (found) break;
-                    }
+            for (int j = 0; j < size; j++) {
+                int c = classes[symbols.index(board.array[i][j])];
+                if (c >= 0)
+                    board.masks[c] |= 1L << (i * size + j);
+                else
+                    board.distance += distance(board, i, j);
+            }
 
-                    //find city distance between two locations
-                    value += (int) Math.abs(x - i) + (int) Math.abs(y - j);
-                }
+        for (int c = 0; c < targets.length; c++)
+            board.distance += matching(c, board.masks[c]);
 
-        //return heuristic value               
-        return value;
+        return (board.distance + 1) / 2;
     }
 
-    //Method locates the board with minimum fvalue in a list of boards
-    private int selectBest(LinkedList<Board> list) {
-        int minValue = list.get(0).fvalue;           //initialize minimum
-        int minIndex = 0;                            //value and location
-
-        for (int i = 0; i < list.size(); i++) {
-            int value = list.get(i).fvalue;
-            if (value < minValue)                    //updates minimums if
-            {                                        //board with smaller
-                minValue = value;                    //fvalue is found
-                minIndex = i;
+    //Method computes heuristic value of child from distance of its parent.
+    //Only values swapped between locations (i, j) and (x, y) moved, so only
+    //their distances, or matchings of their classes, are counted again
+    private int heuristic_A(Board board, Board child, int i, int j, int x, int y) {
+        child.masks = board.masks.clone();
+        child.distance = board.distance;
+
+        int p = i * size + j, q = x * size + y;
+        for (int k = 0; k < 2; k++) {                //value now at (i, j), then (x, y)
+            int at = k == 0 ? p : q, from = k == 0 ? q : p;
+            char value = child.array[at / size][at % size];
+            int c = classes[symbols.index(value)];
+
+            if (c < 0)                               //value held once
+                child.distance += taxi(at, home(value)) - taxi(from, home(value));
+            else {                                   //class of identical values
+                child.distance -= matching(c, child.masks[c]);
+                child.masks[c] ^= (1L << at) | (1L << from);
+                child.distance += matching(c, child.masks[c]);
             }
         }
 
-        return minIndex;                             //return minimum location
+        return (child.distance + 1) / 2;
     }
 
-    //Method creates copy of a board
-    private Board copy(Board board) {
-        return new Board(board.array, size);
+    //Method returns least total taxi distance of values of a class at
+    //locations of a mask to goal locations of the class
+    private int matching(int c, long mask) {
+        Integer cached = matchings.get(c).get(mask);
+        if (cached == null) {
+            cached = assign(mask, targets[c]);
+            matchings.get(c).put(mask, cached);
+        }
+        return cached;
     }
 
-    //Method decides whether a board is goal
-    private boolean goal(Board board) {
-        return identical(board, goal);           //compare board with goal
-    }
+    //Method returns least total taxi distance over assignments of locations
+    //of a mask to goal locations, one each (Hungarian method, k^3 steps for
+    //k locations)
+    private int assign(long mask, int[] goals) {
+        int k = goals.length;
+        int[] cells = new int[k];
+        int n = 0;
+        for (long m = mask; m != 0; m &= m - 1)
+            cells[n++] = Long.numberOfTrailingZeros(m);
+
+        int[] u = new int[k + 1], v = new int[k + 1];   //potentials of rows, columns
+        int[] match = new int[k + 1], way = new int[k + 1];
+        int[] least = new int[k + 1];
+        boolean[] used = new boolean[k + 1];
+
+        for (int row = 1; row <= k; row++) {             //add rows one at a time
+            match[0] = row;
+            int col = 0;
+            Arrays.fill(least, Integer.MAX_VALUE);
+            Arrays.fill(used, false);
+
+            do {                                         //grow alternating tree
+                used[col] = true;                        //until a free column
+                int r = match[col], delta = Integer.MAX_VALUE, next = 0;
+                for (int c = 1; c <= k; c++)
+                    if (!used[c]) {
+                        int cost = taxi(cells[r - 1], goals[c - 1]) - u[r] - v[c];
+                        if (cost < least[c]) { least[c] = cost; way[c] = col; }
+                        if (least[c] < delta) { delta = least[c]; next = c; }
+                    }
+                for (int c = 0; c <= k; c++)
+                    if (used[c]) { u[match[c]] += delta; v[c] -= delta; }
+                    else least[c] -= delta;
+                col = next;
+            } while (match[col] != 0);
+
+            do {                                         //flip path to free column
+                int before = way[col];
+                match[col] = match[before];
+                col = before;
+            } while (col != 0);
+        }
 
-    //Method decides whether a board exists in a list
-    private boolean exists(Board board, LinkedList<Board> list) {
-        for (int i = 0; i < list.size(); i++)    //compare board with each
-            if (identical(board, list.get(i)))   //element of list
-                return true;
+        return -v[0];
+    }
 
-        return false;
+    //Method returns taxi distance between two locations
+    private int taxi(int p, int q) {
+        return Math.abs(p / size - q / size) + Math.abs(p % size - q % size);
     }
 
-    //Method finds location of a board in a list
-    private int find(Board board, LinkedList<Board> list) {
-        for (int i = 0; i < list.size(); i++)    //compare board with each
-            if (identical(board, list.get(i)))   //element of list
-                return i;
+    //Method returns 1 if value at a location mismatches goal board, else 0
+    private int misplaced(Board board, int i, int j) {
+        return board.array[i][j] != goal.array[i][j] ? 1 : 0;
+    }
 
-        return -1;
+    //Method returns taxi distance from a location to goal location of its
+    //value, for values held once
+    private int distance(Board board, int i, int j) {
+        return taxi(i * size + j, home(board.array[i][j]));
     }
 
-    //Method decides whether two boards are identical
-    private boolean identical(Board p, Board q) {
-        for (int i = 0; i < size; i++)
-            for (int j = 0; j < size; j++)
-                if (p.array[i][j] != q.array[i][j]) return false;      //if there is a mismatch then false
+    //Method returns goal location of a value
+    private int home(char value) {
+        return homes[symbols.index(value)];
+    }
 
-        return true;                   //otherwise true
+    //Method returns color class of a value
+    private static int color(char value) {
+        return value == 'R' ? RED : value == 'G' ? GREEN : Character.isDigit(value) ? DIGIT : OTHER;
     }
 
-    //Method displays path from initial to current board
-    private void displayPath(Board board) {
-        LinkedList<Board> list = new LinkedList<Board>();
+    //Method creates copy of a board
+    private Board copy(Board board) {
+        return new Board(board.array, size);
+    }
 
-        Board pointer = board;         //start at current board
+    //Method decides whether a board is goal
+    private boolean goal(Board board) {
+        return board.equals(goal);               //compare board with goal
+    }
 
-        while (pointer != null)        //go back towards initial board
-        {
-            list.addFirst(pointer);    //add boards to beginning of list
+    //Method writes path of boards from initial to goal board to sink
+    private void displayPath(List<Board> path) {
+        stats.solved();
+        LinkedList<char[][]> list = new LinkedList<char[][]>();
 
-            pointer = pointer.parent;  //keep going back
-        }
-        //print boards in list
-        for (int i = 0; i < list.size(); i++) {
-            System.out.println("Board " + (i + 1));
-            displayBoard(list.get(i));
-        }
-    }
+        for (Board board : path)       //go from initial board to goal
+            list.addLast(board.array);
 
-    //Method displays board
-    private void displayBoard(Board board) {
-        for (int i = 0; i < size; i++) //print each element of board
-        {
-            for (int j = 0; j < size; j++)
-                System.out.print(board.array[i][j] + " ");
-            System.out.println();
-        }
-        System.out.println();
+        sink.solved(list, -1);         //boards searched are not counted
     }
 }
@@ -1,16 +1,18 @@
 package q2.program;
 
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.PrintStream;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.Scanner;
 
+import search.ResultSink;
+import search.Solvability;
+
 /**///Tester program for given sliding board
 public class SlidingPuzzleTester {
 
-    public static void main(String[] args) throws FileNotFoundException {
+    public static void main(String[] args) throws IOException {
 
         //main method for testing
         int size = -1;
@@ -18,6 +20,8 @@ public class SlidingPuzzleTester {
         char[][] initial = null;
         //final board
         char[][] goal = null;
+        //heuristic function, 1 misplaced values or 2 matching, optional after initial board
+        int heuristicFunction = 1;
         String inputFilePath = null;
         String outputFilePath = null;
 
@@ -51,6 +55,8 @@ public class SlidingPuzzleTester {
             for (int i = 0; i < size; i++) {
                 initial[i] = scanner.nextLine().replaceAll(" ", "").toCharArray();
             }
+            if (scanner.hasNextInt())
+                heuristicFunction = scanner.nextInt();
             ArrayList<Character> charList = new ArrayList<>();
             for (char[] i : initial) {
                 for (char j : i) {
@@ -72,22 +78,22 @@ public class SlidingPuzzleTester {
             throw new RuntimeException(e);
         }
 
-        PrintStream console = System.out;
-        PrintStream outputFile = new PrintStream(outputFilePath);
-        System.setOut(outputFile);
-
-        SlidingAstar s = new SlidingAstar(initial, goal, size);
-        s.solve();
+        //console and output file get the same text in one pass
+        ResultSink sink = new ResultSink((char) 0).to(System.out, ResultSink.Format.BOARDS)
+                .to(outputFilePath, ResultSink.Format.BOARDS);
+        sink.begin(inputFile.getName());
 
-        System.setOut(console);
-        try {
-            Scanner scanner = new Scanner(new File(outputFilePath));
-            while (scanner.hasNextLine()) {
-                System.out.println(scanner.nextLine());
-            }
-        } catch (Exception e) {
-            throw new RuntimeException(e);
+        //reject unreachable goal before searching
+        String unsolvable = Solvability.colored(initial, goal, size);
+        if (unsolvable != null) {
+            sink.noSolution(unsolvable);
+        } else {
+            SlidingAstar s = new SlidingAstar(initial, goal, size, heuristicFunction);
+            s.setSink(sink);
+            s.solve();
         }
 
+        sink.end();
+        sink.close();
     }
 }
@@ -1,8 +1,18 @@
 package q3.program;
 
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Scanner;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import search.SearchBudget;
 
 //This program plays tic-tac game using min-max, depth limit,
 
@@ -14,15 +24,14 @@ public class AlphaBeta {
     private final char PLAYER = '0';               //player
     private int MIN = 0;                     //min level
     private int MAX = 1;                     //max level
-    private final int LIMIT = 8;
-
-    //depth limit
+    private final long TIME = 1000;                //time of one computer move in ms
 
     //Board class (inner class)
     private class Board {
         private char[][] array;                    //board array
-        private int playerScore;
-        private int computerScore;
+        private int playerScore;                   //points of player, kept up
+        private int computerScore;                 //to date by place
+        private int move = -1;                     //cell of last symbol placed
 
         //Constructor of Board class
         private Board(int size) {
@@ -33,32 +42,108 @@ public class AlphaBeta {
                     array[i][j] = EMPTY;
         }
 
-        private void update() {
-            this.playerScore = evaluateScore(this, PLAYER);
-            this.computerScore = evaluateScore(this, COMPUTER);
-        }
-
         private int getPlayerScore() {
-            update();
             return playerScore;
         }
 
         private int getComputerScore() {
-            update();
             return computerScore;
         }
 
 
     }
 
+    //Search context (inner class). It holds what one computer move learns
+    //while deepening: best line of last iteration, which is searched first
+    //in next iteration, two killer moves of each depth, and history of moves
+    //that caused cutoffs
+    private class Search {
+        private int limit;                         //depth of current iteration
+        private int[] line = new int[0];           //best line of last iteration
+        private boolean following;                 //still on best line of last iteration
+        private int[][] pv;                        //best line below each depth
+        private int[] pvLength;                    //end of best line below each depth
+        private int[][] killers;                   //killer moves of each depth
+        private int[][] history;                   //cutoffs of each side at each cell
+        private long nodes;                        //boards searched
+        private boolean stopped;                   //budget ran out
+        private AtomicLong shared;                 //best so far of root tasks, null if serial
+        private int root;                          //move of root child searched
+        private int lower;                         //latest alpha of root child
+
+        //Constructor of Search class
+        private Search(int cells) {
+            pv = new int[cells + 1][cells + 1];
+            pvLength = new int[cells + 1];
+            killers = new int[cells + 1][2];
+            history = new int[2][cells];
+
+            for (int[] killer : killers)           //no killers yet
+                Arrays.fill(killer, -1);
+        }
+
+        //Constructor of Search class for a helper thread, starting from
+        //killers and history of another search at its current iteration
+        private Search(Search other) {
+            this(other.history[0].length);
+            limit = other.limit;
+
+            for (int depth = 0; depth < killers.length; depth++)
+                killers[depth] = other.killers[depth].clone();
+            for (int side = 0; side < 2; side++)
+                history[side] = other.history[side].clone();
+        }
+    }
+
     private Board board;                           //game board
     private int size;                              //size of board
+    private SearchBudget budget;                   //limits of one computer move
+    private int limit;                             //largest depth searched
+    private ExecutorService pool;                  //threads of root search, kept for
+                                                   //the whole game, null if serial
+    private volatile boolean halted;               //a thread ran out of budget
+    private List<Integer> depths;                  //depth reached by each computer move
 
 
     //Constructor of q3.program.AlphaBeta class
     public AlphaBeta(int size) {
         this.board = new Board((int) Math.pow(size, 2));              //create game board
         this.size = size;                          //set board size
+        this.budget = new SearchBudget().time(TIME);
+        this.limit = size * size;                  //no depth limit
+        this.pool = null;                          //serial search
+        this.depths = new ArrayList<Integer>();
+    }
+
+    //Method sets limits of one computer move
+    public void setBudget(SearchBudget budget) {
+        this.budget = budget;
+    }
+
+    //Method sets largest depth searched
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+
+    //Method sets number of threads that search children of board in
+    //parallel, 1 for serial search. Threads are made once and serve every
+    //computer move. They are daemon threads, so they do not keep the
+    //program running after the game
+    public void setThreads(int threads) {
+        if (pool != null)
+            pool.shutdown();
+
+        this.pool = threads > 1 ? Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task);
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    //Method returns depth of deepest finished iteration of each computer
+    //move so far, 0 if move was the only one or no iteration finished
+    public List<Integer> getDepths() {
+        return depths;
     }
 
 
@@ -97,8 +182,7 @@ public class AlphaBeta {
             if (i < 0 || i >= size || j < 0 || j >= size || board.array[i][j] != EMPTY) {
                 System.out.println("Invalid move");
             } else {
-                board.array[i][j] = PLAYER;                //place player symbol
-                board.update();
+                place(board, i, j, PLAYER);                //place player symbol
                 displayBoard(board);                       //diplay board
                 break;
             }
@@ -107,27 +191,40 @@ public class AlphaBeta {
         return board;                              //return updated board
     }
 
-    //Method determines computer's move
+    //Method determines computer's move. Search deepens one level at a time
+    //until board is searched to the end, depth limit is reached, or budget
+    //runs out, and the move of the deepest finished iteration is chosen
     private Board computerMove(Board board) {//generate children of board
 
         LinkedList<Board> children = generate(board, COMPUTER);
 
-        int maxIndex = -1;
-        int maxValue = Integer.MIN_VALUE;
-        //find the child with
-        for (int i = 0; i < children.size(); i++)  //largest minmax value
-        {
-            int currentValue = minmax(children.get(i), MIN, 1, Integer.MIN_VALUE, Integer.MAX_VALUE);
-            if (currentValue > maxValue) {
-                maxIndex = i;
-                maxValue = currentValue;
-            }
+        int empty = 0;                             //depth of a full board
+        for (char[] row : board.array)
+            for (char c : row)
+                if (c == EMPTY)
+                    empty++;
+
+        Search search = new Search(size * size);
+        budget.start();
+        halted = false;
+
+        Board result = children.getFirst();        //only move, or move if
+                                                   //no iteration finishes
+        int reached = 0;                           //deepest finished iteration
+        for (int depth = 1; children.size() > 1 && depth <= Math.min(empty, limit); depth++) {
+            search.limit = depth;
+            Board best = searchRoot(search, children);
+            if (best == null)                      //budget ran out
+                break;
+
+            result = best;                         //choose the child as next move
+            reached = depth;
+            search.line = Arrays.copyOf(search.pv[0], search.pvLength[0]);
         }
-        Board result = children.get(maxIndex);     //choose the child as next move
 
+        depths.add(reached);
         System.out.println("Computer move:");
 
-        result.update();
         displayBoard(result);                       //diplay board
 
         return result;                             //retun updated board
@@ -153,59 +250,261 @@ public class AlphaBeta {
         System.out.print("Score\nPlayer: " + result.playerScore + "\nComputer: " + result.computerScore + "\n------------------\n");
     }
 
+    //Method searches children of board to depth limit of iteration and
+    //returns best child, or null if budget ran out. Of children with equal
+    //value the one generated first is chosen, so the move does not depend
+    //on order children are searched in. A child generated before the best
+    //so far is searched with alpha one lower, so a tie shows as exact value.
+    //
+    //With a pool of threads the first child is searched alone, and every
+    //other child is searched by a task with its own search context. Tasks
+    //share best value and move found so far. Each task takes its alpha from
+    //them when it starts and again before each reply of the player, so a
+    //child is cut off by values of siblings that finish while it is being
+    //searched. Alpha only rises, so a child that beats its latest alpha gets
+    //its exact value, and the move is the same as in serial search
+    private Board searchRoot(Search search, LinkedList<Board> children) {
+        Board best = null;
+        int maxValue = Integer.MIN_VALUE;
+        LinkedList<Board> ordered = order(search, children, 0, COMPUTER);
+
+        search.following = true;
+        for (Board child : ordered) {
+            if (best != null && pool != null)      //rest of children run in parallel
+                return searchParallel(search, ordered, best, maxValue);
+
+            boolean earlier = best != null && child.move < best.move;
+            int alpha = best == null ? Integer.MIN_VALUE : earlier ? maxValue - 1 : maxValue;
+            int currentValue = minmax(search, child, MIN, 1, alpha, Integer.MAX_VALUE);
+            search.following = false;
+
+            if (search.stopped)
+                return null;
+
+            if (currentValue > maxValue || (currentValue == maxValue && earlier)) {
+                best = child;
+                maxValue = currentValue;
+                extend(search, child, 0);
+            }
+        }
+
+        return best;
+    }
+
+    //Method searches all children but the first on pool of threads, with
+    //value of first child as first shared best, and returns best child, or
+    //null if budget ran out
+    private Board searchParallel(Search search, LinkedList<Board> ordered, Board first, int value) {
+        List<Board> rest = new ArrayList<Board>(ordered.subList(1, ordered.size()));
+        List<Search> helpers = new ArrayList<Search>();
+        List<Future<?>> tasks = new ArrayList<Future<?>>();
+        AtomicLong shared = new AtomicLong(rank(value, first.move));  //best so far
+
+        for (Board child : rest) {
+            Search helper = new Search(search);
+            helpers.add(helper);
+            helper.shared = shared;
+            helper.root = child.move;
+            tasks.add(pool.submit(() -> {
+                helper.lower = lower(shared.get(), child.move);
+
+                int currentValue = minmax(helper, child, MIN, 1, helper.lower, Integer.MAX_VALUE);
+                if (!helper.stopped && currentValue > helper.lower) {
+                    extend(helper, child, 0);      //best line of helper starts at child
+                    shared.accumulateAndGet(rank(currentValue, child.move), Math::max);
+                }
+            }));
+        }
+
+        boolean stopped = false;
+        for (int i = 0; i < rest.size(); i++) {   //wait for every task
+            try {
+                tasks.get(i).get();
+            } catch (ExecutionException e) {
+                throw new RuntimeException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+            stopped |= helpers.get(i).stopped;
+        }
+
+        if (stopped)
+            return null;
+
+        int move = move(shared.get());
+        if (move == first.move)                    //first child is best, its line
+            return first;                          //is already in search
+
+        int i = 0;
+        while (rest.get(i).move != move)
+            i++;
+
+        Search helper = helpers.get(i);            //best line of best child
+        search.pvLength[0] = helper.pvLength[0];
+        System.arraycopy(helper.pv[0], 0, search.pv[0], 0, helper.pvLength[0]);
+        return rest.get(i);
+    }
+
+    //Method ranks a value and move of a root child, so a larger rank is a
+    //larger value, or an equal value of a child generated first
+    private long rank(int value, int move) {
+        return (long) value << 32 | (Integer.MAX_VALUE - move);
+    }
+
+    //Method returns move of a rank
+    private int move(long rank) {
+        return Integer.MAX_VALUE - (int) rank;
+    }
+
+    //Method returns alpha of a root child from best so far, one lower if
+    //child comes first, so a value above alpha beats best so far
+    private int lower(long best, int move) {
+        int alpha = (int) (best >> 32);
+        return move < move(best) ? alpha - 1 : alpha;
+    }
+
     //Method computes minmax value of a board
-    private int minmax(Board board, int level, int depth, int alpha, int beta) {
-        if (full(board) || depth >= LIMIT) {
-            if(terminalValue(board) > 0)
-                System.out.println(terminalValue(board));
-            return terminalValue(board);
-        }            //if board is terminal or depth limit is reached
-        else                                       //evaluate board
+    private int minmax(Search search, Board board, int level, int depth, int alpha, int beta) {
+        search.pvLength[depth] = depth;            //no best line below board yet
+
+        if (full(board) || depth >= search.limit)  //if board is terminal or depth limit is reached
+            return terminalValue(board);           //evaluate board
+
+        if (stopped(search))                       //value is not used
+            return 0;
+
+        if (level == MAX)                          //if board is at max level
         {
-            if (level == MAX)                      //if board is at max level
-            {
-                LinkedList<Board> children = generate(board, COMPUTER);
-                //generate children of board
-                int maxValue = Integer.MIN_VALUE;
+            LinkedList<Board> children = order(search, generate(board, COMPUTER), depth, COMPUTER);
+            //generate children of board
+            int maxValue = Integer.MIN_VALUE;
 
-                for (int i = 0; i < children.size(); i++) {                                 //find minmax values of children
-                    int currentValue = minmax(children.get(i), MIN, depth + 1, alpha, beta);
+            for (Board child : children) {         //find minmax values of children
+                int currentValue = minmax(search, child, MIN, depth + 1, alpha, beta);
+                search.following = false;
 
-                    if (currentValue > maxValue)  //find maximum of minmax values
-                        maxValue = currentValue;
+                if (search.stopped)
+                    return 0;
 
-                    if (maxValue >= beta)         //if maximum exceeds beta stop
-                        return maxValue;
+                if (currentValue > maxValue) {     //find maximum of minmax values
+                    maxValue = currentValue;
+                    extend(search, child, depth);
+                }
 
-                    if (maxValue > alpha)         //if maximum exceeds alpha update alpha
-                        alpha = maxValue;
+                if (maxValue >= beta) {            //if maximum exceeds beta stop
+                    cutoff(search, child, depth, COMPUTER);
+                    return maxValue;
                 }
 
-                return maxValue;                  //return maximum value
-            } else                                   //if board is at min level
-            {
-                LinkedList<Board> children = generate(board, PLAYER);
-                //generate children of board
-                int minValue = Integer.MAX_VALUE;
+                if (maxValue > alpha)              //if maximum exceeds alpha update alpha
+                    alpha = maxValue;
+            }
+
+            return maxValue;                       //return maximum value
+        } else                                     //if board is at min level
+        {
+            LinkedList<Board> children = order(search, generate(board, PLAYER), depth, PLAYER);
+            //generate children of board
+            int minValue = Integer.MAX_VALUE;
+
+            for (Board child : children) {         //find minmax values of children
+                if (depth == 1 && search.shared != null) {
+                    //siblings may have raised best so far since last child
+                    search.lower = Math.max(alpha, lower(search.shared.get(), search.root));
+                    alpha = search.lower;
+                    if (minValue <= alpha)         //child cannot beat best so far
+                        return minValue;
+                }
 
-                for (int i = 0; i < children.size(); i++) {//find minmax values of children
-                    int currentValue = minmax(children.get(i), MAX, depth + 1, alpha, beta);
+                int currentValue = minmax(search, child, MAX, depth + 1, alpha, beta);
+                search.following = false;
 
-                    if (currentValue < minValue)  //find minimum of minmax values
-                        minValue = currentValue;
+                if (search.stopped)
+                    return 0;
 
-                    if (minValue <= alpha)        //if minimum is less than alpha stop
-                        return minValue;
+                if (currentValue < minValue) {     //find minimum of minmax values
+                    minValue = currentValue;
+                    extend(search, child, depth);
+                }
 
-                    if (minValue < beta)          //if minimum is less than beta update beta
-                        beta = minValue;
+                if (minValue <= alpha) {           //if minimum is less than alpha stop
+                    cutoff(search, child, depth, PLAYER);
+                    return minValue;
                 }
 
-                return minValue;                  //return minimum value
+                if (minValue < beta)               //if minimum is less than beta update beta
+                    beta = minValue;
             }
+
+            return minValue;                       //return minimum value
         }
     }
 
+    //Method sorts children at a depth so move on best line of last iteration
+    //comes first, then killer moves of depth, then moves by history. Sort is
+    //stable, so other moves keep order of generate
+    private LinkedList<Board> order(Search search, LinkedList<Board> children, int depth, char symbol) {
+        int hint = -1;                             //move on best line
+        if (search.following) {
+            if (depth < search.line.length)
+                hint = search.line[depth];
+            else
+                search.following = false;          //best line ends above depth
+        }
+
+        int[] killer = search.killers[depth];
+        int[] history = search.history[symbol == COMPUTER ? 0 : 1];
+        int[] priority = new int[size * size];     //priority of each cell
+        for (Board child : children) {
+            int move = child.move;
+            priority[move] = move == hint ? Integer.MAX_VALUE
+                : move == killer[0] ? Integer.MAX_VALUE - 1
+                : move == killer[1] ? Integer.MAX_VALUE - 2
+                : history[move];
+        }
+
+        children.sort((p, q) -> Integer.compare(priority[q.move], priority[p.move]));
+        return children;
+    }
+
+    //Method makes best line below a depth the move of a child followed by
+    //best line below the child
+    private void extend(Search search, Board child, int depth) {
+        int[] line = search.pv[depth];
+        int end = search.pvLength[depth + 1];
+
+        line[depth] = child.move;
+        System.arraycopy(search.pv[depth + 1], depth + 1, line, depth + 1, end - depth - 1);
+        search.pvLength[depth] = end;
+    }
+
+    //Method records move of a child that cut off search at a depth as a
+    //killer move of depth, and adds square of depth left to its history
+    private void cutoff(Search search, Board child, int depth, char symbol) {
+        int[] killer = search.killers[depth];
+        if (killer[0] != child.move) {
+            killer[1] = killer[0];
+            killer[0] = child.move;
+        }
+
+        int left = search.limit - depth;
+        search.history[symbol == COMPUTER ? 0 : 1][child.move] += left * left;
+    }
+
+    //Method decides whether budget of computer move ran out. First iteration
+    //always finishes, so there is a move to return. Boards are counted by
+    //each thread, and once one thread runs out the others stop too
+    private boolean stopped(Search search) {
+        search.nodes++;
+        if (search.limit > 1 && (halted || budget.check(search.nodes) != null)) {
+            search.stopped = true;
+            halted = true;
+        }
+
+        return search.stopped;
+    }
+
     public int terminalValue(Board board) {
         if(full(board)){
             if(playerWin(board)){
@@ -257,7 +556,8 @@ public class AlphaBeta {
             for (int j = 0; j < size; j++) {     //go thru board
                 if (board.array[i][j] == EMPTY) {
                     Board child = copy(board);     //put the symbol and
-                    child.array[i][j] = symbol;    //create child board
+                    place(child, i, j, symbol);    //create child board
+                    child.move = i * size + j;
                     children.addLast(child);
                 }
             }
@@ -274,32 +574,50 @@ public class AlphaBeta {
                 result.array[i][j] = board.array[i][j];
             }
         }
+        result.playerScore = board.playerScore;
+        result.computerScore = board.computerScore;
         return result;
     }
 
-    private int evaluateScore(Board board, char symbol) {
-        int p = 0;
-        int q = 0;
-        for (int i = 0; i < size; i++) {
-            for (int j = 0; j < size; j++) {
-                if (board.array[i][j] == symbol) {
-                    if (i + 1 < size && board.array[i + 1][j] == symbol) {
-                        p++;
-                        if (i + 2 < size && board.array[i + 2][j] == symbol) {
-                            q++;
-                        }
-                    }
-                    if (j + 1 < size && board.array[i][j + 1] == symbol) {
-                        p++;
-                        if (j + 2 < size && board.array[i][j + 2] == symbol) {
-                            q++;
-                        }
-                    }
-                }
-            }
+    //Method places a symbol in an empty slot and adds to score of symbol
+    //the pairs and triples through the slot, the only ones that change
+    private void place(Board board, int i, int j, char symbol) {
+        board.array[i][j] = symbol;
+
+        int points = 0;
+        for (int vertical = 0; vertical < 2; vertical++) {
+            int di = vertical, dj = 1 - vertical;  //step along row or column
+            int before = run(board, i, j, -di, -dj, symbol);
+            int after = run(board, i, j, di, dj, symbol);
+
+            if (before >= 1)                       //pairs of 2 points
+                points += 2;
+            if (after >= 1)
+                points += 2;
+            if (before >= 2)                       //triples of 3 points
+                points += 3;
+            if (before >= 1 && after >= 1)
+                points += 3;
+            if (after >= 2)
+                points += 3;
         }
 
-        return ((2 * p) + (3 * q));
+        if (symbol == PLAYER)
+            board.playerScore += points;
+        else
+            board.computerScore += points;
+    }
+
+    //Method counts symbols in a row, at most 2, next to a slot in a direction
+    private int run(Board board, int i, int j, int di, int dj, char symbol) {
+        int count = 0;
+        for (int k = 1; k <= 2; k++) {
+            int x = i + k * di, y = j + k * dj;
+            if (x < 0 || x >= size || y < 0 || y >= size || board.array[x][y] != symbol)
+                break;
+            count++;
+        }
+        return count;
     }
 
 }
\ No newline at end of file
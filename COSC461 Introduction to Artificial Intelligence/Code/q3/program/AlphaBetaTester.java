@@ -4,11 +4,16 @@ package q3.program;
 //board evaluation, and alph-beta pruning
 public class AlphaBetaTester
 {
-   //main program for tester
+   //main program for tester, optional argument is number of threads
+   //of root search, 1 by default
    public static void main(String[] args)
    {
        //play tic-tac game
        AlphaBeta a = new AlphaBeta(4);
+       a.setThreads(args.length > 0 ? Integer.parseInt(args[0]) : 1);
 	   a.play();
+
+       //depth reached by each computer move
+       System.out.println("Depth per move: " + a.getDepths());
    }
 }
\ No newline at end of file
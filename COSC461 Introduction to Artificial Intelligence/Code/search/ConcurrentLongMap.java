@@ -0,0 +1,130 @@
+package search;
+
+//Map from long to long that many threads can use at once, such as packed
+//board to packed parent board. Keys are split among stripes by hash, and
+//each stripe is an open addressing table in primitive arrays with a lock of
+//its own, so threads only wait for each other when they hit the same stripe
+//and no key or value is boxed
+public class ConcurrentLongMap
+{
+    private static final int STRIPES = 64;      //number of stripes, a power of two
+
+    //Stripe of map (inner class). Lock of a stripe is the stripe itself
+    private static class Stripe
+    {
+        private long[] keys = new long[64];     //key of each slot
+        private long[] values = new long[64];   //value of each slot
+        private boolean[] used = new boolean[64];  //whether slot holds a key
+        private int count;                      //number of keys
+    }
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    //Constructor of ConcurrentLongMap class
+    public ConcurrentLongMap()
+    {
+        for (int s = 0; s < STRIPES; s++)
+            stripes[s] = new Stripe();
+    }
+
+    //Method adds a key with a value unless key is already in map. Returns
+    //true if key was added
+    public boolean putIfAbsent(long key, long value)
+    {
+        long hash = hash(key);
+        Stripe stripe = stripes[(int) (hash >>> 58)];
+
+        synchronized (stripe)
+        {
+            int slot = find(stripe, key, hash);
+            if (stripe.used[slot])
+                return false;
+
+            stripe.keys[slot] = key;
+            stripe.values[slot] = value;
+            stripe.used[slot] = true;
+
+            if (2 * ++stripe.count > stripe.keys.length)  //keep stripe at most
+                grow(stripe);                             //half full
+            return true;
+        }
+    }
+
+    //Method decides whether a key is in map
+    public boolean containsKey(long key)
+    {
+        long hash = hash(key);
+        Stripe stripe = stripes[(int) (hash >>> 58)];
+
+        synchronized (stripe)
+        {
+            return stripe.used[find(stripe, key, hash)];
+        }
+    }
+
+    //Method returns value of a key, or 0 if key is not in map
+    public long get(long key)
+    {
+        long hash = hash(key);
+        Stripe stripe = stripes[(int) (hash >>> 58)];
+
+        synchronized (stripe)
+        {
+            int slot = find(stripe, key, hash);
+            return stripe.used[slot] ? stripe.values[slot] : 0;
+        }
+    }
+
+    //Method returns number of keys
+    public int size()
+    {
+        int size = 0;
+
+        for (Stripe stripe : stripes)
+            synchronized (stripe)
+            {
+                size += stripe.count;
+            }
+
+        return size;
+    }
+
+    //Method returns slot of a key in a stripe, or free slot where it would go
+    private static int find(Stripe stripe, long key, long hash)
+    {
+        int mask = stripe.keys.length - 1;
+        int slot = (int) hash & mask;
+
+        while (stripe.used[slot] && stripe.keys[slot] != key)
+            slot = (slot + 1) & mask;                  //linear probing
+
+        return slot;
+    }
+
+    //Method doubles slots of a stripe and puts every key in again
+    private static void grow(Stripe stripe)
+    {
+        long[] keys = stripe.keys, values = stripe.values;
+        boolean[] used = stripe.used;
+
+        stripe.keys = new long[keys.length * 2];
+        stripe.values = new long[keys.length * 2];
+        stripe.used = new boolean[keys.length * 2];
+
+        for (int k = 0; k < keys.length; k++)
+            if (used[k])
+            {
+                int slot = find(stripe, keys[k], hash(keys[k]));
+                stripe.keys[slot] = keys[k];
+                stripe.values[slot] = values[k];
+                stripe.used[slot] = true;
+            }
+    }
+
+    //Method computes hash of a key. Top bits pick stripe, low bits slot
+    private static long hash(long key)
+    {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
+    }
+}
@@ -0,0 +1,145 @@
+package search;
+
+import java.util.Arrays;
+
+//Storage for search nodes over packed boards. Nodes live in primitive arrays
+//and are referred to by index, and parent links are indices as well. Every
+//node is also put in a hash index over its board, so a board that was seen
+//before is found in constant time. Nodes are never removed
+public class NodeArena
+{
+    private final int words;                    //longs per board
+    private long[] states;                      //boards, words longs per node
+    private int[] parents;                      //parent of each node, -1 if none
+    private int[] values;                       //depth or heuristic value of each node
+    private int count;                          //number of nodes
+    private int[] table;                        //hash index, node + 1 or 0 if empty
+
+    //Constructor of NodeArena class
+    public NodeArena(int words)
+    {
+        this.words = words;
+        this.states = new long[1024 * words];
+        this.parents = new int[1024];
+        this.values = new int[1024];
+        this.count = 0;
+        this.table = new int[2048];
+    }
+
+    //Method returns number of nodes
+    public int size()
+    {
+        return count;
+    }
+
+    //Method returns array holding boards. Board of a node starts at
+    //offset(node). The array is replaced when arena grows
+    public long[] states()
+    {
+        return states;
+    }
+
+    //Method returns where board of a node starts in states()
+    public int offset(int node)
+    {
+        return node * words;
+    }
+
+    //Method returns parent of a node
+    public int parent(int node)
+    {
+        return parents[node];
+    }
+
+    //Method returns value of a node
+    public int value(int node)
+    {
+        return values[node];
+    }
+
+    //Method returns nodes on path from first node of a tree of parent
+    //links to a node
+    public int[] path(int node)
+    {
+        int length = 0;                            //count nodes on path
+        for (int current = node; current >= 0; current = parents[current])
+            length++;
+
+        int[] path = new int[length];
+        for (int current = node; current >= 0; current = parents[current])
+            path[--length] = current;              //fill from end of path
+
+        return path;
+    }
+
+    //Method adds a node for board stored at an offset of an array.
+    //Returns index of new node
+    public int add(long[] state, int offset, int parent, int value)
+    {
+        if (count == parents.length)               //grow node arrays
+        {
+            states = Arrays.copyOf(states, states.length * 2);
+            parents = Arrays.copyOf(parents, parents.length * 2);
+            values = Arrays.copyOf(values, values.length * 2);
+        }
+
+        System.arraycopy(state, offset, states, count * words, words);
+        parents[count] = parent;
+        values[count] = value;
+
+        if (2 * (count + 1) > table.length)        //keep index at most half full
+            rehash();
+        insert(count);
+
+        return count++;
+    }
+
+    //Method returns node holding board stored at an offset of an array,
+    //or -1 if board was not added
+    public int find(long[] state, int offset)
+    {
+        int slot = hash(state, offset) & (table.length - 1);
+
+        while (table[slot] != 0)                   //probe until empty slot
+        {
+            int node = table[slot] - 1;
+            if (Arrays.equals(states, node * words, node * words + words,
+                              state, offset, offset + words))
+                return node;
+            slot = (slot + 1) & (table.length - 1);
+        }
+
+        return -1;
+    }
+
+    //Method puts a node in hash index
+    private void insert(int node)
+    {
+        int slot = hash(states, node * words) & (table.length - 1);
+
+        while (table[slot] != 0)
+            slot = (slot + 1) & (table.length - 1);
+
+        table[slot] = node + 1;
+    }
+
+    //Method doubles hash index and puts every node in it again
+    private void rehash()
+    {
+        table = new int[table.length * 2];
+
+        for (int node = 0; node < count; node++)
+            insert(node);
+    }
+
+    //Method computes hash of board stored at an offset of an array
+    private int hash(long[] state, int offset)
+    {
+        long h = 0;
+
+        for (int w = 0; w < words; w++)
+            h = (h + state[offset + w]) * 0x9E3779B97F4A7C15L;
+
+        return (int) (h ^ (h >>> 32));
+    }
+}
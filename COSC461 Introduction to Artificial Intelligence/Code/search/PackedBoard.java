@@ -0,0 +1,141 @@
+package search;
+
+//Packs sliding puzzle boards into longs. Every symbol of the goal board gets
+//a small code, and each slot of a board holds the code of its symbol. With at
+//most 16 symbols a slot takes 4 bits, so boards up to 4x4 fit in one long.
+//Larger boards take several longs. Slots are numbered in row order
+public class PackedBoard
+{
+    private final int size;                     //board size
+    private final int bits;                     //bits per slot
+    private final int perWord;                  //slots per long
+    private final int words;                    //longs per board
+    private final long mask;                    //bits of one slot
+    private final Symbols symbols;              //symbols of goal, index is code
+
+    //Constructor of PackedBoard class. Symbols are taken from goal board
+    public PackedBoard(char[][] goal, int size)
+    {
+        this.size = size;
+        this.symbols = new Symbols(goal, size);    //codes in order of first appearance
+
+        int needed = 4;                            //at least 4 bits per slot
+        while ((1 << needed) < symbols.count())
+            needed++;
+        this.bits = needed;
+        this.perWord = 64 / bits;
+        this.words = (size * size + perWord - 1) / perWord;
+        this.mask = (1L << bits) - 1;
+    }
+
+    //Method returns number of longs per board
+    public int words()
+    {
+        return words;
+    }
+
+    //Method returns code of a symbol, or -1 if symbol is not on goal board
+    public int code(char symbol)
+    {
+        return symbols.index(symbol);
+    }
+
+    //Method packs a board into a new array of longs
+    public long[] pack(char[][] board)
+    {
+        long[] state = new long[words];
+
+        for (int i = 0; i < size; i++)
+            for (int j = 0; j < size; j++)
+            {
+                int code = symbols.index(board[i][j]);
+                if (code < 0)
+                    throw new IllegalArgumentException("symbol '" + board[i][j] + "' is not on goal board");
+                set(state, 0, i * size + j, code);
+            }
+
+        return state;
+    }
+
+    //Method unpacks board stored at an offset of an array into a board array
+    public void unpack(long[] state, int offset, char[][] board)
+    {
+        for (int i = 0; i < size; i++)
+            for (int j = 0; j < size; j++)
+                board[i][j] = symbols.symbol(get(state, offset, i * size + j));
+    }
+
+    //Method returns code in a slot of board stored at an offset of an array
+    public int get(long[] state, int offset, int slot)
+    {
+        return (int) ((state[offset + slot / perWord] >>> ((slot % perWord) * bits)) & mask);
+    }
+
+    //Method puts code in a slot of board stored at an offset of an array
+    public void set(long[] state, int offset, int slot, int code)
+    {
+        int shift = (slot % perWord) * bits;
+        int word = offset + slot / perWord;
+        state[word] = (state[word] & ~(mask << shift)) | ((long) code << shift);
+    }
+
+    //Method swaps codes of two slots of board stored at an offset of an array
+    public void swap(long[] state, int offset, int p, int q)
+    {
+        int code = get(state, offset, p);
+        set(state, offset, p, get(state, offset, q));
+        set(state, offset, q, code);
+    }
+
+    //Method decides whether board stored at an offset of an array is the
+    //same as another board, such as goal board
+    public boolean same(long[] state, int offset, long[] other)
+    {
+        for (int w = 0; w < words; w++)
+            if (state[offset + w] != other[w])
+                return false;
+
+        return true;
+    }
+
+    //Method returns neighbor of a slot for moves 0 to 3 in order N, S, E,
+    //W, or -1 if there is no such neighbor
+    public int neighbor(int slot, int move)
+    {
+        int i = slot / size, j = slot % size;
+
+        switch (move)
+        {
+            case 0: return i == 0 ? -1 : slot - size;
+            case 1: return i == size-1 ? -1 : slot + size;
+            case 2: return j == size-1 ? -1 : slot + 1;
+            default: return j == 0 ? -1 : slot - 1;
+        }
+    }
+
+    //Method returns text of board stored at an offset of an array, each
+    //row on a line and each symbol followed by a space, then an empty line
+    public String text(long[] state, int offset)
+    {
+        StringBuilder text = new StringBuilder((2 * size + 1) * size + 1);
+
+        for (int i = 0; i < size; i++)
+        {
+            for (int j = 0; j < size; j++)
+                text.append(symbols.symbol(get(state, offset, i * size + j))).append(' ');
+            text.append('\n');
+        }
+
+        return text.append('\n').toString();
+    }
+
+    //Method returns first slot holding a code, or -1 if there is none
+    public int find(long[] state, int offset, int code)
+    {
+        for (int slot = 0; slot < size * size; slot++)
+            if (get(state, offset, slot) == code)
+                return slot;
+
+        return -1;
+    }
+}
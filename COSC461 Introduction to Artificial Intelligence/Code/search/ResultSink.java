@@ -0,0 +1,341 @@
+package search;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+//Writes results of sliding puzzle searches to several destinations in one
+//pass. Each destination has a format: a dump of every board on the path, a
+//string of moves, or one JSON object per line. A record is opened by begin,
+//filled by the solver, and written to every destination by end. A record
+//that was not opened by begin is written as soon as the solver fills it.
+//An anytime solver writes each better path as a record of its own before
+//the final record
+public class ResultSink implements Closeable
+{
+    //Formats of a destination
+    public enum Format
+    {
+        BOARDS,                                 //Board 1, Board 2, ... as printed before
+        MOVES,                                  //moves of empty slot, such as NNESW
+        JSON                                    //one JSON object per record
+    }
+
+    private final char blank;                   //empty slot, 0 if boards have none
+    private final List<Writer> writers = new ArrayList<>();
+    private final List<Format> formats = new ArrayList<>();
+    private final List<Boolean> owned = new ArrayList<>();  //closed by close()
+
+    private boolean open;                       //record opened by begin
+    private String instance;                    //name of instance, may be null
+    private List<char[][]> path;                //boards on path, null if none
+    private int searched;                       //boards searched, -1 if not counted
+    private double bound;                       //bound of path cost over shortest,
+                                                //-1 if path is final
+    private String reason;                      //why there is no solution
+    private double runtime;                     //runtime in ms, -1 if not measured
+    private SearchStats stats;                  //statistics, null if not given
+    private SearchBudget.Limit limit;           //limit that stopped search, or null
+    private char[][] best;                      //best frontier board when stopped
+
+    //Constructor of ResultSink class. Blank is the symbol of empty slot, used
+    //to name moves; with 0 moves are written as pairs of swapped locations
+    public ResultSink(char blank)
+    {
+        this.blank = blank;
+        clear();                                //no record yet
+    }
+
+    //Method adds a stream as destination. Stream is flushed but not closed
+    public ResultSink to(OutputStream out, Format format)
+    {
+        return add(out, format, false);
+    }
+
+    //Method adds a file as destination. File is closed by close()
+    public ResultSink to(String file, Format format) throws IOException
+    {
+        return add(new FileOutputStream(file), format, true);
+    }
+
+    //Method adds a destination
+    private ResultSink add(OutputStream out, Format format, boolean own)
+    {
+        writers.add(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16));
+        formats.add(format);
+        owned.add(own);
+        return this;
+    }
+
+    //Method opens a record for an instance
+    public void begin(String instance)
+    {
+        clear();
+        this.open = true;
+        this.instance = instance;
+    }
+
+    //Method records path from initial board to goal board and number of
+    //boards searched, or -1 if they were not counted
+    public void solved(List<char[][]> path, int searched)
+    {
+        this.path = path;
+        this.searched = searched;
+        if (!open)
+            end();
+    }
+
+    //Method writes at once a path found by an anytime search, with number of
+    //boards searched and bound of its cost over cost of a shortest path.
+    //Record stays open for the same instance, so a better path or the final
+    //result is written as a record of its own
+    public void improved(List<char[][]> path, int searched, double bound)
+    {
+        boolean open = this.open;
+        String instance = this.instance;
+
+        this.path = path;
+        this.searched = searched;
+        this.bound = bound;
+        end();
+
+        this.open = open;
+        this.instance = instance;
+    }
+
+    //Method records that there is no solution, with a reason or null
+    public void noSolution(String reason)
+    {
+        this.path = null;
+        this.reason = reason;
+        if (!open)
+            end();
+    }
+
+    //Method records that search was stopped by a limit of its budget, with
+    //best board on frontier at that time
+    public void stopped(SearchBudget.Limit limit, char[][] best)
+    {
+        this.path = null;
+        this.limit = limit;
+        this.best = best;
+        if (!open)
+            end();
+    }
+
+    //Method records runtime of search in ms
+    public void runtime(double runtime)
+    {
+        this.runtime = runtime;
+    }
+
+    //Method records statistics of search
+    public void stats(SearchStats stats)
+    {
+        this.stats = stats;
+    }
+
+    //Method writes record in every format to its destinations and flushes
+    public void end()
+    {
+        String[] rendered = new String[Format.values().length];
+
+        try
+        {
+            for (int d = 0; d < writers.size(); d++)
+            {
+                int f = formats.get(d).ordinal();    //render each format once
+                if (rendered[f] == null)
+                    rendered[f] = render(formats.get(d));
+                writers.get(d).write(rendered[f]);
+                writers.get(d).flush();
+            }
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+
+        clear();
+    }
+
+    //Method flushes every destination and closes files
+    public void close() throws IOException
+    {
+        for (int d = 0; d < writers.size(); d++)
+            if (owned.get(d))
+                writers.get(d).close();
+            else
+                writers.get(d).flush();
+    }
+
+    //Method forgets current record
+    private void clear()
+    {
+        open = false;
+        instance = null;
+        path = null;
+        searched = -1;
+        bound = -1;
+        reason = null;
+        runtime = -1;
+        stats = null;
+        limit = null;
+        best = null;
+    }
+
+    //Method renders current record in a format
+    private String render(Format format)
+    {
+        StringBuilder text = new StringBuilder();
+
+        switch (format)
+        {
+            case BOARDS:
+                if (path != null)
+                {
+                    for (int i = 0; i < path.size(); i++)  //print boards in path
+                    {
+                        text.append("Board ").append(i + 1).append('\n');
+                        for (char[] row : path.get(i))
+                        {
+                            for (char value : row)
+                                text.append(value).append(' ');
+                            text.append('\n');
+                        }
+                        text.append('\n');
+                    }
+                    if (searched >= 0)
+                        text.append("Swaps: ").append(path.size())
+                            .append("\nBoards Searched: ").append(searched).append('\n');
+                    if (bound >= 0)
+                        text.append(String.format(Locale.ROOT, "Bound: %.3f\n", bound));
+                }
+                else if (limit != null)
+                {
+                    text.append("budget exceeded: ").append(limit).append("\nBest Board\n");
+                    for (char[] row : best)
+                    {
+                        for (char value : row)
+                            text.append(value).append(' ');
+                        text.append('\n');
+                    }
+                    text.append('\n');
+                }
+                else
+                    text.append("no solution").append(reason == null ? "" : ": " + reason).append('\n');
+                if (runtime >= 0)
+                    text.append(String.format(Locale.ROOT, "Runtime: %.3fms\n", runtime));
+                break;
+
+            case MOVES:
+                if (instance != null)
+                    text.append(instance).append(' ');
+                text.append(path != null ? moves() : status()).append('\n');
+                break;
+
+            case JSON:
+                text.append('{');
+                if (instance != null)
+                    text.append("\"instance\":").append(quote(instance)).append(',');
+                text.append("\"status\":").append(quote(path == null ? status()
+                                                          : bound >= 0 ? "improved" : "solved"));
+                if (bound >= 0)
+                    text.append(String.format(Locale.ROOT, ",\"bound\":%.3f", bound));
+                if (limit != null)
+                    text.append(",\"limit\":").append(quote(limit.toString()));
+                if (reason != null)
+                    text.append(",\"reason\":").append(quote(reason));
+                if (path != null)
+                    text.append(",\"swaps\":").append(path.size())
+                        .append(",\"moves\":").append(quote(moves()));
+                if (searched >= 0)
+                    text.append(",\"searched\":").append(searched);
+                if (runtime >= 0)
+                    text.append(String.format(Locale.ROOT, ",\"runtimeMs\":%.3f", runtime));
+                if (stats != null)
+                    text.append(",\"stats\":").append(stats.toJson());
+                text.append("}\n");
+                break;
+        }
+
+        return text.toString();
+    }
+
+    //Method names status of a record without path
+    private String status()
+    {
+        return limit != null ? "budget exceeded" : "no solution";
+    }
+
+    //Method names moves between boards on path. With an empty slot, each
+    //move is the direction N, S, E or W the empty slot went. Otherwise each
+    //move is the two swapped locations, row and column from 1, such as 12-22
+    private String moves()
+    {
+        StringBuilder text = new StringBuilder();
+
+        for (int k = 1; k < path.size(); k++)
+        {
+            char[][] before = path.get(k - 1), after = path.get(k);
+            int first = -1, second = -1;               //changed locations
+
+            for (int i = 0; i < before.length; i++)
+                for (int j = 0; j < before[i].length; j++)
+                    if (before[i][j] != after[i][j])
+                    {
+                        if (first < 0)
+                            first = i * before.length + j;
+                        else
+                            second = i * before.length + j;
+                    }
+
+            if (first < 0 || second < 0)
+                continue;
+
+            int size = before.length;
+            if (blank != 0)
+            {
+                int from = before[first / size][first % size] == blank ? first : second;
+                int to = from == first ? second : first;
+                text.append(to == from - size ? 'N' : to == from + size ? 'S' : to == from + 1 ? 'E' : 'W');
+            }
+            else
+            {
+                if (text.length() > 0)
+                    text.append(' ');
+                text.append(first / size + 1).append(first % size + 1).append('-')
+                    .append(second / size + 1).append(second % size + 1);
+            }
+        }
+
+        return text.toString();
+    }
+
+    //Method quotes a string for JSON
+    private static String quote(String value)
+    {
+        StringBuilder text = new StringBuilder("\"");
+
+        for (char c : value.toCharArray())
+        {
+            if (c == '"' || c == '\\')
+                text.append('\\').append(c);
+            else if (c < ' ')
+                text.append(String.format("\\u%04x", (int) c));
+            else
+                text.append(c);
+        }
+
+        return text.append('"').toString();
+    }
+}
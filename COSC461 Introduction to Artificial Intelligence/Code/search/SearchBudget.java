@@ -0,0 +1,101 @@
+package search;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+//Limits on a search: boards expanded, wall clock time, and memory in use by
+//the JVM. A search can also be cancelled from another thread. Solvers call
+//check before expanding a board. Time and memory are looked at every
+//CHECK_EVERY calls, so a search may go a little past those limits. Threads
+//of a parallel search may share one budget
+public class SearchBudget
+{
+    //Limits that can stop a search
+    public enum Limit
+    {
+        NODES,                                  //too many boards expanded
+        TIME,                                   //too much time
+        MEMORY,                                 //too much memory in use
+        CANCELLED                               //cancelled by caller
+    }
+
+    private static final int CHECK_EVERY = 64;     //calls between slow checks,
+                                                   //a power of two
+
+    private long maxNodes = Long.MAX_VALUE;     //boards expanded
+    private long maxMillis = Long.MAX_VALUE;    //time of one search
+    private long maxBytes = Long.MAX_VALUE;     //memory in use
+    private volatile boolean cancelled;         //set by cancel()
+    private volatile boolean timed;             //whether current search has a deadline
+    private volatile long deadline;             //end of time of current search
+    private final AtomicInteger calls = new AtomicInteger();  //calls of check
+
+    //Method limits boards expanded by a search
+    public SearchBudget nodes(long maxNodes)
+    {
+        this.maxNodes = maxNodes;
+        return this;
+    }
+
+    //Method limits time of a search in ms
+    public SearchBudget time(long maxMillis)
+    {
+        this.maxMillis = maxMillis;
+        return this;
+    }
+
+    //Method limits memory in use by the JVM in bytes
+    public SearchBudget memory(long maxBytes)
+    {
+        this.maxBytes = maxBytes;
+        return this;
+    }
+
+    //Method asks a search to stop. Safe to call from any thread, also
+    //before search starts. Budget stays cancelled until reset
+    public void cancel()
+    {
+        cancelled = true;
+    }
+
+    //Method clears a cancel, so budget can be used for another search.
+    //Caller resets between searches, never while one may be cancelled
+    public void reset()
+    {
+        cancelled = false;
+    }
+
+    //Method marks start of a search, so time is counted from now. A cancel
+    //made before is kept. A time limit too long to count in ns is no limit
+    public void start()
+    {
+        timed = maxMillis < Long.MAX_VALUE / 1000000;
+        deadline = timed ? System.nanoTime() + maxMillis * 1000000 : 0;
+        calls.set(0);
+    }
+
+    //Method returns limit that is reached after a number of boards were
+    //expanded, or null if search may go on
+    public Limit check(long expanded)
+    {
+        if (expanded >= maxNodes)
+            return Limit.NODES;
+
+        if (cancelled)
+            return Limit.CANCELLED;
+
+        if ((calls.incrementAndGet() & (CHECK_EVERY - 1)) != 0)
+            return null;                        //slow checks are not done every time
+
+        if (timed && System.nanoTime() - deadline > 0)
+            return Limit.TIME;
+
+        if (maxBytes != Long.MAX_VALUE)
+        {
+            Runtime runtime = Runtime.getRuntime();
+            if (runtime.totalMemory() - runtime.freeMemory() > maxBytes)
+                return Limit.MEMORY;
+        }
+
+        return null;
+    }
+}
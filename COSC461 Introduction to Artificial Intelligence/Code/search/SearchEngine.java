@@ -0,0 +1,395 @@
+package search;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+
+//Search engine for any SearchProblem, with a choice of strategy. Greedy and
+//A* search keep open nodes in a binary min heap ordered on f, ties going to
+//the node that joined first, same as a scan of a list, and a map from key to
+//node, so a shorter path to an open state replaces its node in place. IDA*
+//keeps only the path it is on. Every strategy counts its work in SearchStats
+//and checks its SearchBudget before each expansion. Caller starts both
+//before search. The engine keeps a node object per state and looks states
+//up by key, so solvers over packed boards (Sliding, SlidingLimit and
+//SlidingBest) share PackedBoard and NodeArena instead
+public class SearchEngine<S>
+{
+    //Strategies of search
+    public enum Strategy
+    {
+        GREEDY,                                 //best first on f = h
+        ASTAR,                                  //best first on f = g + weight * h
+        IDASTAR                                 //iterative deepening on f = g + weight * h
+    }
+
+    private static final int CLOSED = -1;       //heap slot of closed node
+    private static final int FOUND = -1;        //IDA* reached goal
+    private static final int STOPPED = -2;      //IDA* hit budget
+
+    //Search node (inner class)
+    private static class Node<S>
+    {
+        private S state;                        //state of node
+        private Node<S> parent;                 //node state came from
+        private int gvalue;                     //path cost
+        private int fvalue;                     //value open list is ordered on
+        private long order;                     //position in which node joined open list
+        private int slot;                       //heap slot, CLOSED once removed
+
+        //Constructor of node class
+        private Node(S state, Node<S> parent, int gvalue, int fvalue)
+        {
+            this.state = state;
+            this.parent = parent;
+            this.gvalue = gvalue;
+            this.fvalue = fvalue;
+        }
+    }
+
+    //Open list (inner class). It is a binary min heap of nodes ordered on
+    //fvalue, each node knowing its slot
+    private class OpenList
+    {
+        private ArrayList<Node<S>> heap = new ArrayList<Node<S>>();  //heap of nodes
+        private long count;                                         //nodes added so far
+
+        //Method decides whether open list is empty
+        private boolean isEmpty()
+        {
+            return heap.isEmpty();
+        }
+
+        //Method returns number of nodes in open list
+        private int size()
+        {
+            return heap.size();
+        }
+
+        //Method returns node with minimum fvalue
+        private Node<S> peek()
+        {
+            return heap.get(0);
+        }
+
+        //Method adds a node to open list
+        private void add(Node<S> node)
+        {
+            node.order = count++;                      //later nodes lose ties
+            node.slot = heap.size();
+            heap.add(node);
+            siftUp(node.slot);
+        }
+
+        //Method moves a node whose fvalue dropped, as if it was removed
+        //and added again
+        private void decrease(Node<S> node)
+        {
+            node.order = count++;
+            siftUp(node.slot);
+        }
+
+        //Method removes node with minimum fvalue from open list
+        private Node<S> removeBest()
+        {
+            Node<S> best = heap.get(0);                //node at root
+            Node<S> last = heap.remove(heap.size() - 1);  //move last node to root
+
+            if (!heap.isEmpty())
+            {
+                heap.set(0, last);
+                last.slot = 0;
+                siftDown(0);
+            }
+
+            best.slot = CLOSED;
+            return best;
+        }
+
+        //Method moves node at a slot up until its parent is not larger
+        private void siftUp(int slot)
+        {
+            while (slot > 0)
+            {
+                int up = (slot - 1) / 2;
+                if (!less(heap.get(slot), heap.get(up)))
+                    break;
+                swap(slot, up);
+                slot = up;
+            }
+        }
+
+        //Method moves node at a slot down until its children are not smaller
+        private void siftDown(int slot)
+        {
+            while (true)
+            {
+                int left = 2 * slot + 1, right = left + 1, least = slot;
+                if (left < heap.size() && less(heap.get(left), heap.get(least)))
+                    least = left;
+                if (right < heap.size() && less(heap.get(right), heap.get(least)))
+                    least = right;
+                if (least == slot)
+                    break;
+                swap(slot, least);
+                slot = least;
+            }
+        }
+
+        //Method swaps nodes at two slots and updates their slots
+        private void swap(int a, int b)
+        {
+            Node<S> p = heap.get(a), q = heap.get(b);
+            heap.set(a, q);
+            heap.set(b, p);
+            q.slot = a;
+            p.slot = b;
+        }
+
+        //Method decides whether a node comes before another node
+        private boolean less(Node<S> p, Node<S> q)
+        {
+            return p.fvalue < q.fvalue || (p.fvalue == q.fvalue && p.order < q.order);
+        }
+    }
+
+    private final SearchProblem<S> problem;     //puzzle searched
+    private final Strategy strategy;            //order of search
+    private double weight;                      //weight of h in A* and IDA*
+    private SearchBudget budget;                //limits of search
+    private SearchStats stats;                  //statistics of search
+    private SearchBudget.Limit limit;           //limit that stopped search, or null
+    private S best;                             //best frontier state when stopped
+
+    //Constructor of SearchEngine class
+    public SearchEngine(SearchProblem<S> problem, Strategy strategy)
+    {
+        this.problem = problem;
+        this.strategy = strategy;
+        this.weight = 1;                        //plain A*
+        this.budget = new SearchBudget();       //no limits
+        this.stats = new SearchStats();
+    }
+
+    //Method sets weight of h in A* and IDA*. Weight 0 is uniform cost
+    //search, and weight over 1 is weighted A*
+    public SearchEngine<S> weight(double weight)
+    {
+        this.weight = weight;
+        return this;
+    }
+
+    //Method sets limits of search
+    public SearchEngine<S> budget(SearchBudget budget)
+    {
+        this.budget = budget;
+        return this;
+    }
+
+    //Method sets statistics that search fills in
+    public SearchEngine<S> stats(SearchStats stats)
+    {
+        this.stats = stats;
+        return this;
+    }
+
+    //Method searches problem and returns states from initial state to goal,
+    //or null if there is no path or search was stopped by budget
+    public List<S> search()
+    {
+        limit = null;
+        best = null;
+
+        switch (strategy)
+        {
+            case IDASTAR:
+                return searchDeepening();
+            default:
+                return searchBest();
+        }
+    }
+
+    //Method returns limit that stopped last search, or null
+    public SearchBudget.Limit getLimit()
+    {
+        return limit;
+    }
+
+    //Method returns best frontier state when last search was stopped, or null
+    public S getBest()
+    {
+        return best;
+    }
+
+    //Method searches in order of fvalue. A child whose state is closed, or
+    //open with no smaller fvalue, is a duplicate
+    private List<S> searchBest()
+    {
+        OpenList openList = new OpenList();
+        HashMap<Object, Node<S>> nodes = new HashMap<Object, Node<S>>();  //open and closed
+        int closed = 0;
+
+        S initial = problem.initial();
+        Node<S> root = new Node<S>(initial, null, 0, value(0, problem.heuristic(initial)));
+        nodes.put(problem.key(initial), root);
+        openList.add(root);
+
+        while (!openList.isEmpty())
+        {
+            stats.open(openList.size());
+            if (stopped(openList.peek().state))
+                return null;
+
+            Node<S> node = openList.removeBest();
+            stats.closed(++closed);
+
+            if (problem.isGoal(node.state))
+                return path(node);
+
+            List<S> children = expand(node.state);
+            for (int i = 0; i < children.size(); i++)
+            {
+                S child = children.get(i);
+                Object key = problem.key(child);
+                Node<S> old = nodes.get(key);
+                int gvalue = node.gvalue + 1;
+                int fvalue = value(gvalue, problem.heuristic(child));
+
+                if (old == null)                       //new state
+                {
+                    Node<S> added = new Node<S>(child, node, gvalue, fvalue);
+                    nodes.put(key, added);
+                    openList.add(added);
+                }
+                else if (old.slot != CLOSED && fvalue < old.fvalue)
+                {                                      //better copy of open state
+                    old.state = child;
+                    old.parent = node;
+                    old.gvalue = gvalue;
+                    old.fvalue = fvalue;
+                    openList.decrease(old);
+                }
+                else
+                    stats.duplicate();
+            }
+        }
+
+        return null;
+    }
+
+    //Method searches depth first within a bound on fvalue, raising bound to
+    //smallest fvalue over it until goal is reached
+    private List<S> searchDeepening()
+    {
+        ArrayList<S> path = new ArrayList<S>();
+        S initial = problem.initial();
+        path.add(initial);
+
+        int bound = value(0, problem.heuristic(initial));   //first bound
+
+        while (true)
+        {
+            int next = deepen(path, null, bound);
+
+            if (next == FOUND)
+                return path;
+
+            if (next == STOPPED || next == Integer.MAX_VALUE)
+                return null;                    //stopped or no state over bound
+
+            bound = next;                       //raise bound
+        }
+    }
+
+    //Method searches states below last state of path within a bound. A move
+    //back to the state before is skipped. Returns FOUND with path to goal,
+    //STOPPED if budget is exceeded, otherwise the smallest fvalue over bound
+    private int deepen(ArrayList<S> path, Object parentKey, int bound)
+    {
+        int gvalue = path.size() - 1;
+        S state = path.get(gvalue);
+        int fvalue = value(gvalue, problem.heuristic(state));
+
+        if (fvalue > bound)                     //state is over bound
+            return fvalue;
+
+        if (problem.isGoal(state))
+            return FOUND;
+
+        if (stopped(state))
+            return STOPPED;
+
+        int minValue = Integer.MAX_VALUE;       //smallest fvalue over bound
+        stats.open(gvalue + 1);                 //states on path
+        Object key = problem.key(state);
+
+        List<S> children = expand(state);
+        for (int i = 0; i < children.size(); i++)
+        {
+            S child = children.get(i);
+
+            if (parentKey != null && parentKey.equals(problem.key(child)))
+            {                                   //skip move back
+                stats.duplicate();
+                continue;
+            }
+
+            path.add(child);
+            int value = deepen(path, key, bound);
+
+            if (value == FOUND || value == STOPPED)
+                return value;
+
+            path.remove(path.size() - 1);
+            if (value < minValue)
+                minValue = value;
+        }
+
+        return minValue;
+    }
+
+    //Method returns fvalue of a node from its path cost and heuristic value
+    private int value(int gvalue, int hvalue)
+    {
+        if (strategy == Strategy.GREEDY)
+            return hvalue;
+
+        return gvalue + (int) Math.round(weight * hvalue);
+    }
+
+    //Method returns successors of a state and counts them
+    private List<S> expand(S state)
+    {
+        stats.expanded();
+
+        List<S> children = new ArrayList<S>(4);
+        problem.successors(state, children);
+        stats.add(0, children.size(), 0);
+
+        return children;
+    }
+
+    //Method decides whether budget stops search, keeping best frontier state
+    private boolean stopped(S state)
+    {
+        limit = budget.check(stats.getExpanded());
+
+        if (limit == null)
+            return false;
+
+        best = state;
+        return true;
+    }
+
+    //Method returns states from initial state to state of a node
+    private List<S> path(Node<S> node)
+    {
+        LinkedList<S> path = new LinkedList<S>();
+
+        for (Node<S> pointer = node; pointer != null; pointer = pointer.parent)
+            path.addFirst(pointer.state);
+
+        return path;
+    }
+}
@@ -0,0 +1,25 @@
+package search;
+
+import java.util.List;
+
+//Puzzle searched by SearchEngine. A problem supplies its initial state, the
+//goal test, successors of a state, an estimate of moves left, and a key of
+//each state. Equal states must have equal keys, so keys can be kept in hash
+//tables. Every move costs one
+public interface SearchProblem<S>
+{
+    //Method returns initial state
+    S initial();
+
+    //Method decides whether a state is goal
+    boolean isGoal(S state);
+
+    //Method adds successors of a state to a list, in order they are searched
+    void successors(S state, List<S> successors);
+
+    //Method returns estimate of moves from a state to goal, 0 if none
+    int heuristic(S state);
+
+    //Method returns key of a state
+    Object key(S state);
+}
@@ -0,0 +1,246 @@
+package search;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Locale;
+
+//Statistics of one search, filled in by a solver and returned by solve().
+//Times are wall clock. Heuristic time is spent computing heuristic values,
+//and bookkeeping time is the rest. Heuristic time is estimated by timing
+//one evaluation in every few and scaling up, since reading the clock twice
+//per child costs as much as a cheap heuristic. Allocated bytes are those of
+//the thread that called solve(), or -1 if the JVM does not count them.
+//Bytes allocated by other threads, such as workers of a parallel search,
+//are not counted. A search that was stopped by its budget keeps the limit
+//it reached and the best board on its frontier at that time
+public class SearchStats
+{
+    private static final int SAMPLE = 64;       //evaluations per timed evaluation,
+                                                //a power of two
+    //Ways a search can end
+    public enum Status
+    {
+        RUNNING,                                //search has not ended
+        SOLVED,                                 //path to goal was found
+        NO_SOLUTION,                            //goal can not be reached
+        BUDGET_EXCEEDED                         //search was stopped by budget
+    }
+
+    private Status status = Status.RUNNING;     //how search ended
+    private SearchBudget.Limit limit;           //limit reached, null if none
+    private char[][] best;                      //best frontier board when stopped
+    private long expanded;                      //boards whose children were made
+    private long generated;                     //children made
+    private long duplicates;                    //children rejected as already seen
+    private long peakOpen;                      //largest size of open list
+    private long closed;                        //size of closed list at end
+    private long heuristicNanos;                //time in heuristic evaluation
+    private long totalNanos;                    //time of whole search
+    private long allocated = -1;                //bytes allocated by calling thread
+
+    private long clockStart;                    //start of search
+    private long heuristicStart;                //start of timed heuristic evaluation
+    private boolean timing;                     //whether current evaluation is timed
+    private long evaluations;                   //heuristic evaluations so far
+    private long bytesStart = -1;               //allocated bytes at start of search
+
+    //Method marks start of search
+    public void start()
+    {
+        bytesStart = allocatedBytes();
+        clockStart = System.nanoTime();
+    }
+
+    //Method marks end of search
+    public void stop()
+    {
+        totalNanos = System.nanoTime() - clockStart;
+        long bytesEnd = allocatedBytes();
+        allocated = bytesStart < 0 || bytesEnd < 0 ? -1 : bytesEnd - bytesStart;
+    }
+
+    //Method records that a path to goal was found
+    public void solved()
+    {
+        status = Status.SOLVED;
+    }
+
+    //Method records that goal can not be reached
+    public void noSolution()
+    {
+        status = Status.NO_SOLUTION;
+    }
+
+    //Method records that search was stopped by a limit of its budget, with
+    //best board on frontier at that time
+    public void stopped(SearchBudget.Limit limit, char[][] best)
+    {
+        this.status = Status.BUDGET_EXCEEDED;
+        this.limit = limit;
+        this.best = best;
+    }
+
+    //Method counts a board whose children are made
+    public void expanded()
+    {
+        expanded++;
+    }
+
+    //Method counts a child that was made
+    public void generated()
+    {
+        generated++;
+    }
+
+    //Method counts a child rejected as already seen
+    public void duplicate()
+    {
+        duplicates++;
+    }
+
+    //Method adds counts made elsewhere, such as by other threads
+    public void add(long expanded, long generated, long duplicates)
+    {
+        this.expanded += expanded;
+        this.generated += generated;
+        this.duplicates += duplicates;
+    }
+
+    //Method records size of open list, keeping the largest
+    public void open(long size)
+    {
+        if (size > peakOpen)
+            peakOpen = size;
+    }
+
+    //Method records size of closed list
+    public void closed(long size)
+    {
+        closed = size;
+    }
+
+    //Method marks start of a heuristic evaluation. Only one evaluation in
+    //every SAMPLE is timed
+    public void startHeuristic()
+    {
+        timing = (evaluations++ & (SAMPLE - 1)) == 0;
+        if (timing)
+            heuristicStart = System.nanoTime();
+    }
+
+    //Method marks end of a heuristic evaluation. A timed evaluation counts
+    //for the SAMPLE evaluations it stands for
+    public void stopHeuristic()
+    {
+        if (timing)
+            heuristicNanos += (System.nanoTime() - heuristicStart) * SAMPLE;
+    }
+
+    //Method returns how search ended
+    public Status getStatus()
+    {
+        return status;
+    }
+
+    //Method returns limit that stopped search, or null
+    public SearchBudget.Limit getLimit()
+    {
+        return limit;
+    }
+
+    //Method returns best frontier board when search was stopped, or null
+    public char[][] getBestBoard()
+    {
+        return best;
+    }
+
+    //Method returns number of boards whose children were made
+    public long getExpanded()
+    {
+        return expanded;
+    }
+
+    //Method returns number of children made
+    public long getGenerated()
+    {
+        return generated;
+    }
+
+    //Method returns number of children rejected as already seen
+    public long getDuplicates()
+    {
+        return duplicates;
+    }
+
+    //Method returns largest size of open list
+    public long getPeakOpen()
+    {
+        return peakOpen;
+    }
+
+    //Method returns size of closed list at end of search
+    public long getClosed()
+    {
+        return closed;
+    }
+
+    //Method returns estimated time in heuristic evaluation in ms
+    public double getHeuristicTime()
+    {
+        return Math.min(heuristicNanos, totalNanos) / 1e6;
+    }
+
+    //Method returns estimated time outside heuristic evaluation in ms
+    public double getBookkeepingTime()
+    {
+        return (totalNanos - Math.min(heuristicNanos, totalNanos)) / 1e6;
+    }
+
+    //Method returns time of whole search in ms
+    public double getTotalTime()
+    {
+        return totalNanos / 1e6;
+    }
+
+    //Method returns bytes allocated by thread that called solve(), or -1 if
+    //not counted. Other threads of a parallel search are left out
+    public long getAllocatedBytes()
+    {
+        return allocated;
+    }
+
+    //Method returns statistics as JSON object
+    public String toJson()
+    {
+        return String.format(Locale.ROOT,
+            "{\"status\":\"%s\",%s\"expanded\":%d,\"generated\":%d,\"duplicates\":%d,\"peakOpen\":%d,\"closed\":%d," +
+            "\"heuristicMs\":%.3f,\"bookkeepingMs\":%.3f,\"allocatedBytes\":%d}",
+            status, limit == null ? "" : "\"limit\":\"" + limit + "\",", expanded, generated, duplicates, peakOpen, closed,
+            getHeuristicTime(), getBookkeepingTime(), allocated);
+    }
+
+    //Method returns statistics as one line
+    public String toString()
+    {
+        return String.format(Locale.ROOT,
+            "%s%s, expanded %d, generated %d, duplicates %d, peak open %d, closed %d, " +
+            "heuristic %.3fms, bookkeeping %.3fms, allocated %d bytes",
+            status, limit == null ? "" : " (" + limit + ")", expanded, generated, duplicates, peakOpen, closed,
+            getHeuristicTime(), getBookkeepingTime(), allocated);
+    }
+
+    //Method returns bytes allocated so far by current thread, or -1
+    private static long allocatedBytes()
+    {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+        if (threads instanceof com.sun.management.ThreadMXBean)
+        {
+            com.sun.management.ThreadMXBean counted = (com.sun.management.ThreadMXBean) threads;
+            if (counted.isThreadAllocatedMemorySupported() && counted.isThreadAllocatedMemoryEnabled())
+                return counted.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+
+        return -1;
+    }
+}
@@ -0,0 +1,138 @@
+package search;
+
+import java.util.Arrays;
+
+//Checks run before a sliding puzzle search to reject boards whose goal can
+//never be reached. Each check returns the reason a goal is unreachable, or
+//null if no reason was found. Null does not prove that a goal is reachable
+public class Solvability
+{
+    //Method checks numbered sliding puzzle where the blank swaps with a
+    //neighbor. Boards must hold the same values. When all values differ,
+    //every move is a transposition that moves the blank one step, so the
+    //parity of the permutation from initial to goal board must match the
+    //parity of the taxi distance of the blank
+    public static String numbered(char[][] initial, char[][] goal, int size, char blank)
+    {
+        String reason = sameValues(initial, goal, size);
+        if (reason != null)
+            return reason;
+
+        int cells = size * size;
+        Symbols symbols = new Symbols(goal, size);
+        if (symbols.count() < cells)                     //repeated values, parity
+            return null;                                 //says nothing
+
+        int[] homes = new int[cells];                    //goal location of each value
+        for (int i = 0; i < size; i++)
+            for (int j = 0; j < size; j++)
+                homes[symbols.index(goal[i][j])] = i * size + j;
+
+        int from = -1, to = symbols.index(blank) < 0 ? -1 : homes[symbols.index(blank)];
+        int[] target = new int[cells];                   //goal location of value
+        for (int i = 0; i < size; i++)                   //at each location
+            for (int j = 0; j < size; j++)
+            {
+                target[i * size + j] = homes[symbols.index(initial[i][j])];
+                if (initial[i][j] == blank)
+                    from = i * size + j;
+            }
+
+        if (from < 0 || to < 0)
+            return "board has no blank";
+
+        int cycles = 0;                                  //permutation parity is
+        boolean[] seen = new boolean[cells];             //cells minus cycles
+        for (int start = 0; start < cells; start++)
+            if (!seen[start])
+            {
+                cycles++;
+                for (int at = start; !seen[at]; at = target[at])
+                    seen[at] = true;
+            }
+
+        int permutation = (cells - cycles) % 2;
+        int distance = (Math.abs(from / size - to / size) + Math.abs(from % size - to % size)) % 2;
+
+        if (permutation != distance)
+            return "permutation parity does not match blank distance parity";
+
+        return null;
+    }
+
+    //Method checks colored swap puzzle where a digit swaps with a neighbor
+    //R or G, and an R swaps with a neighbor G. Boards must hold the same
+    //values, and a board other than goal needs at least one legal swap.
+    //When there is a single R or G, every swap moves it one step with a
+    //digit, so it is the blank of a numbered puzzle and the same parity
+    //must match. With more R and G no parity holds, and null only means
+    //none of these checks failed
+    public static String colored(char[][] initial, char[][] goal, int size)
+    {
+        String reason = sameValues(initial, goal, size);
+        if (reason != null)
+            return reason;
+
+        if (Arrays.deepEquals(initial, goal))
+            return null;
+
+        boolean swappable = false;
+        int colors = 0;                                  //number of R and G, and
+        char color = 0;                                  //last one found
+        for (int i = 0; i < size; i++)
+            for (int j = 0; j < size; j++)
+            {
+                if ((i + 1 < size && compatible(initial[i][j], initial[i + 1][j])) ||
+                    (j + 1 < size && compatible(initial[i][j], initial[i][j + 1])))
+                    swappable = true;
+
+                if (initial[i][j] == 'R' || initial[i][j] == 'G')
+                {
+                    colors++;
+                    color = initial[i][j];
+                }
+            }
+
+        if (!swappable)
+            return "no two neighbors can be swapped";
+
+        if (colors == 1)                                 //single R or G moves like
+            return numbered(initial, goal, size, color); //blank of numbered puzzle
+
+        return null;
+    }
+
+    //Method decides whether two values of colored puzzle can be swapped
+    private static boolean compatible(char p, char q)
+    {
+        boolean pColor = p == 'R' || p == 'G', qColor = q == 'R' || q == 'G';
+
+        if (pColor && qColor)                            //R swaps with G
+            return p != q;
+
+        return pColor || qColor;                         //digit swaps with R or G
+    }
+
+    //Method checks that two boards hold the same values the same number
+    //of times
+    private static String sameValues(char[][] initial, char[][] goal, int size)
+    {
+        char[] p = new char[size * size], q = new char[size * size];
+
+        for (int i = 0; i < size; i++)
+        {
+            if (initial[i].length != size || goal[i].length != size)
+                return "board row " + i + " does not have " + size + " values";
+            System.arraycopy(initial[i], 0, p, i * size, size);
+            System.arraycopy(goal[i], 0, q, i * size, size);
+        }
+
+        Arrays.sort(p);
+        Arrays.sort(q);
+
+        if (!Arrays.equals(p, q))
+            return "initial and goal boards hold different values";
+
+        return null;
+    }
+}
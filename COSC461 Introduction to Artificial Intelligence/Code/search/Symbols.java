@@ -0,0 +1,76 @@
+package search;
+
+import java.util.Arrays;
+
+//Index of the symbols of a board. Each distinct symbol gets a small index
+//in order of first appearance in row order, so tables about symbols take
+//one slot per symbol instead of one slot per char. A symbol's index is
+//found in a table that starts at the smallest symbol, so it takes one
+//array read and a board of digits and letters needs only a few dozen slots
+public class Symbols
+{
+    private final char first;                   //smallest symbol
+    private final int[] indexes;                //index of each char from first on,
+                                                //-1 if char is not a symbol
+    private final char[] symbols;               //symbol of each index
+
+    //Constructor of Symbols class. Symbols are taken from a board
+    public Symbols(char[][] board, int size)
+    {
+        this(flatten(board, size));
+    }
+
+    //Constructor of Symbols class. Symbols are taken from values in order
+    public Symbols(char[] values)
+    {
+        char low = Character.MAX_VALUE, high = 0;
+        for (char value : values)
+        {
+            low = (char) Math.min(low, value);
+            high = (char) Math.max(high, value);
+        }
+
+        this.first = values.length == 0 ? 0 : low;
+        this.indexes = new int[values.length == 0 ? 0 : high - low + 1];
+        Arrays.fill(indexes, -1);                  //no symbol has an index yet
+
+        StringBuilder found = new StringBuilder();
+        for (char value : values)
+            if (indexes[value - first] < 0)
+            {
+                indexes[value - first] = found.length();
+                found.append(value);
+            }
+        this.symbols = found.toString().toCharArray();
+    }
+
+    //Method returns number of symbols
+    public int count()
+    {
+        return symbols.length;
+    }
+
+    //Method returns index of a symbol, or -1 if it is not a symbol
+    public int index(char symbol)
+    {
+        int at = symbol - first;
+        return at >= 0 && at < indexes.length ? indexes[at] : -1;
+    }
+
+    //Method returns symbol of an index
+    public char symbol(int index)
+    {
+        return symbols[index];
+    }
+
+    //Method returns values of a board in row order
+    private static char[] flatten(char[][] board, int size)
+    {
+        char[] values = new char[size * size];
+
+        for (int i = 0; i < size; i++)
+            System.arraycopy(board[i], 0, values, i * size, size);
+
+        return values;
+    }
+}
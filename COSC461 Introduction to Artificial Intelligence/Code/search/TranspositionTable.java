@@ -0,0 +1,88 @@
+package search;
+
+import java.util.Arrays;
+
+//Bounded table of the shallowest depth at which each packed board was seen
+//by a depth first search. The table never grows. A board that finds no free
+//slot among a few probes replaces the deepest board there. Forgetting a board
+//only costs time, since that board is searched again when it is met again
+public class TranspositionTable
+{
+    private static final int PROBES = 4;        //slots tried per board
+
+    private final int words;                    //longs per board
+    private final long[] states;                //boards, words longs per slot
+    private final int[] depths;                 //depth of each slot, 0 if empty
+    private final int mask;                     //slots minus one
+
+    //Constructor of TranspositionTable class. Capacity is rounded up to a
+    //power of two
+    public TranspositionTable(int words, int capacity)
+    {
+        int slots = Integer.highestOneBit(Math.max(capacity, PROBES) - 1) << 1;
+
+        this.words = words;
+        this.states = new long[slots * words];
+        this.depths = new int[slots];
+        this.mask = slots - 1;
+    }
+
+    //Method forgets every board
+    public void clear()
+    {
+        Arrays.fill(depths, 0);
+    }
+
+    //Method records board stored at an offset of an array at a depth of at
+    //least 1. Returns false if board was already seen at the same or a
+    //smaller depth, so it need not be searched again
+    public boolean visit(long[] state, int offset, int depth)
+    {
+        int home = hash(state, offset) & mask;
+        int victim = home;                         //slot to replace
+
+        for (int probe = 0; probe < PROBES; probe++)
+        {
+            int slot = (home + probe) & mask;
+
+            if (depths[slot] == 0)                 //free slot, board is new
+            {
+                store(slot, state, offset, depth);
+                return true;
+            }
+
+            if (Arrays.equals(states, slot * words, slot * words + words,
+                              state, offset, offset + words))
+            {
+                if (depths[slot] <= depth)         //seen at least as shallow
+                    return false;
+                depths[slot] = depth;              //seen deeper before
+                return true;
+            }
+
+            if (depths[slot] > depths[victim])
+                victim = slot;
+        }
+
+        store(victim, state, offset, depth);       //replace deepest board
+        return true;
+    }
+
+    //Method puts board and depth in a slot
+    private void store(int slot, long[] state, int offset, int depth)
+    {
+        System.arraycopy(state, offset, states, slot * words, words);
+        depths[slot] = depth;
+    }
+
+    //Method computes hash of board stored at an offset of an array
+    private int hash(long[] state, int offset)
+    {
+        long h = 0;
+
+        for (int w = 0; w < words; w++)
+            h = (h + state[offset + w]) * 0x9E3779B97F4A7C15L;
+
+        return (int) (h ^ (h >>> 32));
+    }
+}